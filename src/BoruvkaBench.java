@@ -0,0 +1,86 @@
+/* BoruvkaBench.java */
+
+/**
+ * The BoruvkaBench class measures how Boruvka.minSpanTree() scales with the
+ * number of threads.  It builds one large random sparse graph, times
+ * Kruskal.minSpanTree() on it as the sequential baseline, then times Boruvka
+ * on pools of 1, 2, 4, ... threads, checking that every run returns the same
+ * total weight.
+ *
+ * Usage:  java -Xms4g -Xmx4g BoruvkaBench [vertices] [edges] [maxThreads]
+ *         (defaults 1,000,000 / 5,000,000 / available processors)
+ */
+
+import graph.*;
+import graphalg.*;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class BoruvkaBench {
+
+  private static long totalWeight(WUGraph t) {
+    long total = 0;
+    Object[] vertices = t.getVertices();
+    for (int i = 0; i < vertices.length; i++) {
+      Neighbors nb = t.getNeighbors(vertices[i]);
+      if (nb != null) {
+        for (int j = 0; j < nb.weightList.length; j++) {
+          total += nb.weightList[j];
+        }
+      }
+    }
+    return total / 2;
+  }
+
+  public static void main(String[] args) {
+    int n = 1000000;
+    int m = 5000000;
+    int maxThreads = Runtime.getRuntime().availableProcessors();
+    if (args.length > 0) {
+      n = Integer.parseInt(args[0]);
+    }
+    if (args.length > 1) {
+      m = Integer.parseInt(args[1]);
+    }
+    if (args.length > 2) {
+      maxThreads = Integer.parseInt(args[2]);
+    }
+
+    Integer[] vertArray = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      vertArray[i] = Integer.valueOf(i);
+    }
+    Object[] us = new Object[m];
+    Object[] vs = new Object[m];
+    int[] ws = new int[m];
+    Random random = new Random(0);
+    for (int i = 0; i < m; i++) {
+      us[i] = vertArray[random.nextInt(n)];
+      vs[i] = vertArray[random.nextInt(n)];
+      ws[i] = random.nextInt(1000000);
+    }
+    WUGraph g = new WUGraph(n, m);
+    g.addVertices(vertArray);
+    g.addEdges(us, vs, ws);
+    CsrGraph csr = g.freeze();
+
+    // time everything twice and report the second round, after warm-up;
+    for (int round = 0; round < 2; round++) {
+      long start = System.nanoTime();
+      long expected = totalWeight(Kruskal.minSpanTree(csr));
+      System.out.println("Kruskal:  " + (System.nanoTime() - start) / 1000000 + " ms");
+      for (int threads = 1; threads <= maxThreads; threads *= 2) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        start = System.nanoTime();
+        WUGraph t = Boruvka.minSpanTree(csr, pool);
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        if (totalWeight(t) != expected) {
+          throw new RuntimeException("Boruvka disagrees with Kruskal");
+        }
+        System.out.println("Boruvka, " + threads + " thread(s):  " +
+                           elapsed / 1000000 + " ms");
+      }
+    }
+  }
+}
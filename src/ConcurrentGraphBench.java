@@ -0,0 +1,98 @@
+/* ConcurrentGraphBench.java */
+
+/**
+ * The ConcurrentGraphBench class measures ConcurrentWUGraph throughput as the
+ * number of feeder threads grows.  Each run loads the same random edges into
+ * a fresh graph, split evenly among the threads, while one extra thread calls
+ * getNeighbors() on random vertices; it prints edges added per second and
+ * neighbor reads per second.  Afterward it checks that no edge was lost.
+ *
+ * Usage:  java -Xmx4g ConcurrentGraphBench [vertices] [edges] [maxThreads]
+ *         (defaults 100,000 / 1,000,000 / 8)
+ */
+
+import graph.*;
+import java.util.Random;
+
+public class ConcurrentGraphBench {
+
+  private static volatile boolean done;
+
+  public static void main(String[] args) throws InterruptedException {
+    int n = 100000;
+    int m = 1000000;
+    int maxThreads = 8;
+    if (args.length > 0) {
+      n = Integer.parseInt(args[0]);
+    }
+    if (args.length > 1) {
+      m = Integer.parseInt(args[1]);
+    }
+    if (args.length > 2) {
+      maxThreads = Integer.parseInt(args[2]);
+    }
+
+    final Integer[] vertArray = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      vertArray[i] = Integer.valueOf(i);
+    }
+    final int[] us = new int[m];
+    final int[] vs = new int[m];
+    Random random = new Random(0);
+    for (int i = 0; i < m; i++) {
+      us[i] = random.nextInt(n);
+      vs[i] = random.nextInt(n);
+    }
+
+    for (int threads = 1; threads <= maxThreads; threads *= 2) {
+      final ConcurrentWUGraph g = new ConcurrentWUGraph();
+      for (int i = 0; i < n; i++) {
+        g.addVertex(vertArray[i]);
+      }
+      done = false;
+      final long[] reads = new long[1];
+      Thread reader = new Thread() {
+        public void run() {
+          Random r = new Random(1);
+          while (!done) {
+            g.getNeighbors(vertArray[r.nextInt(vertArray.length)]);
+            reads[0]++;
+          }
+        }
+      };
+      Thread[] writers = new Thread[threads];
+      final int share = (m + threads - 1) / threads;
+      for (int t = 0; t < threads; t++) {
+        final int lo = t * share;
+        final int hi = Math.min(m, lo + share);
+        writers[t] = new Thread() {
+          public void run() {
+            for (int i = lo; i < hi; i++) {
+              g.addEdge(vertArray[us[i]], vertArray[vs[i]], i);
+            }
+          }
+        };
+      }
+      long start = System.nanoTime();
+      reader.start();
+      for (int t = 0; t < threads; t++) {
+        writers[t].start();
+      }
+      for (int t = 0; t < threads; t++) {
+        writers[t].join();
+      }
+      done = true;
+      reader.join();
+      double seconds = (System.nanoTime() - start) / 1e9;
+
+      for (int i = 0; i < m; i += 1000) {
+        if (!g.isEdge(vertArray[us[i]], vertArray[vs[i]])) {
+          throw new RuntimeException("lost edge " + us[i] + "-" + vs[i]);
+        }
+      }
+      System.out.println(threads + " writer(s):  " + (long) (m / seconds) +
+                         " edges/s  " + (long) (reads[0] / seconds) +
+                         " reads/s  (" + g.edgeCount() + " edges)");
+    }
+  }
+}
@@ -0,0 +1,521 @@
+/* ConcurrentTest.java */
+
+/**
+ * The ConcurrentTest class checks ConcurrentWUGraph under contention.
+ * Several threads work on one graph at once; afterward the graph must equal
+ * the one that the same operations, run one at a time, build in a WUGraph.
+ * Threads are given operations that commute (edges no other thread
+ * touches), so the sequential answer does not depend on the interleaving.
+ * Where the operations do not commute (edges removed while their ends are
+ * removed and added back), the graph must at least stay sound:  every edge
+ * listed at both of its ends, with one weight, and counted; and, in one
+ * forced interleaving, removeEdge() must wait for the lock of an end that was
+ * re-added after it looked the end up.
+ * It also checks WUGraph snapshots, built by a reader thread while the
+ * graph keeps changing, against CsrGraphs frozen when they were taken.
+ */
+
+import graph.*;
+import java.util.Arrays;
+import java.util.Random;
+
+public class ConcurrentTest {
+
+  private static final int THREADS = 4;
+
+  private static volatile boolean done;
+  private static volatile String failure;
+
+  // join starts and waits for every thread;
+  private static void join(Thread[] threads) throws InterruptedException {
+    for (int t = 0; t < threads.length; t++) {
+      threads[t].start();
+    }
+    for (int t = 0; t < threads.length; t++) {
+      threads[t].join();
+    }
+  }
+
+  // owner returns the thread that may touch edge (u, v);
+  private static int owner(int u, int v) {
+    return (Math.min(u, v) * 31 + Math.max(u, v)) % THREADS;
+  }
+
+  // apply runs operation i of a script on g (a WUGraph or a ConcurrentWUGraph);
+  private static void apply(Object g, int[] ops, int[] us, int[] vs, int i) {
+    // vertices are boxed afresh, so most are not the objects first added;
+    Integer u = Integer.valueOf(us[i]);
+    Integer v = Integer.valueOf(vs[i]);
+    if (g instanceof WUGraph) {
+      WUGraph h = (WUGraph) g;
+      switch (ops[i]) {
+      case 0: h.addEdge(u, v, i); break;
+      case 1: h.removeEdge(u, v); break;
+      case 2: h.addVertex(u); break;
+      default: h.removeVertex(u); break;
+      }
+    } else {
+      ConcurrentWUGraph h = (ConcurrentWUGraph) g;
+      switch (ops[i]) {
+      case 0: h.addEdge(u, v, i); break;
+      case 1: h.removeEdge(u, v); break;
+      case 2: h.addVertex(u); break;
+      default: h.removeVertex(u); break;
+      }
+    }
+  }
+
+  // packed returns the sorted (neighbor, weight) pairs of a vertex;
+  private static long[] packed(Neighbors neigh) {
+    if (neigh == null) {
+      return new long[0];
+    }
+    long[] keys = new long[neigh.neighborList.length];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = ((long) ((Integer) neigh.neighborList[i]).intValue() << 32) |
+                (neigh.weightList[i] & 0xffffffffL);
+    }
+    Arrays.sort(keys);
+    return keys;
+  }
+
+  // graphTest returns 1 if threads editing their own edges and vertices leave the sequential graph;
+  private static int graphTest() throws InterruptedException {
+    System.out.println("Running ConcurrentWUGraph test.");
+    Random random = new Random(7);
+    final int n = 2000;
+    final int churn = 200;
+    final int steps = 100000;
+    // thread t edits edges it owns among the first n vertices; the last thread adds
+    // and removes the churn vertices after them, and edges among those;
+    final int[][] ops = new int[THREADS + 1][steps];
+    final int[][] us = new int[THREADS + 1][steps];
+    final int[][] vs = new int[THREADS + 1][steps];
+    for (int t = 0; t <= THREADS; t++) {
+      for (int i = 0; i < steps; i++) {
+        int u;
+        int v;
+        if (t < THREADS) {
+          do {
+            u = random.nextInt(n);
+            v = random.nextInt(n);
+          } while (owner(u, v) != t);
+          ops[t][i] = (random.nextInt(3) == 0) ? 1 : 0;
+        } else {
+          u = n + random.nextInt(churn);
+          v = n + random.nextInt(churn);
+          int op = random.nextInt(10);
+          ops[t][i] = (op < 5) ? 0 : (op < 7) ? 1 : (op < 9) ? 2 : 3;
+        }
+        us[t][i] = u;
+        vs[t][i] = v;
+      }
+    }
+
+    final ConcurrentWUGraph g = new ConcurrentWUGraph();
+    WUGraph reference = new WUGraph();
+    for (int i = 0; i < n + churn; i++) {
+      g.addVertex(Integer.valueOf(i));
+      reference.addVertex(Integer.valueOf(i));
+    }
+    done = false;
+    Thread reader = new Thread() {
+      public void run() {
+        Random r = new Random(9);
+        while (!done) {
+          Integer vertex = Integer.valueOf(r.nextInt(n + churn));
+          Neighbors neigh = g.getNeighbors(vertex);
+          if (neigh != null && neigh.neighborList.length != neigh.weightList.length) {
+            failure = "getNeighbors() returned lists of different lengths.";
+          }
+          g.isEdge(vertex, Integer.valueOf(r.nextInt(n + churn)));
+        }
+      }
+    };
+    Thread[] threads = new Thread[THREADS + 1];
+    for (int t = 0; t <= THREADS; t++) {
+      final int id = t;
+      threads[t] = new Thread() {
+        public void run() {
+          for (int i = 0; i < steps; i++) {
+            apply(g, ops[id], us[id], vs[id], i);
+          }
+        }
+      };
+    }
+    reader.start();
+    join(threads);
+    done = true;
+    reader.join();
+    for (int t = 0; t <= THREADS; t++) {
+      for (int i = 0; i < steps; i++) {
+        apply(reference, ops[t], us[t], vs[t], i);
+      }
+    }
+
+    if (failure != null) {
+      System.out.println(failure);
+      return 0;
+    }
+    if (g.vertexCount() != reference.vertexCount() ||
+        g.edgeCount() != reference.edgeCount()) {
+      System.out.println("ConcurrentWUGraph has " + g.vertexCount() +
+                         " vertices and " + g.edgeCount() +
+                         " edges but should have " + reference.vertexCount() +
+                         " and " + reference.edgeCount() + ".");
+      return 0;
+    }
+    for (int i = 0; i < n + churn; i++) {
+      Integer vertex = Integer.valueOf(i);
+      if (g.isVertex(vertex) != reference.isVertex(vertex) ||
+          g.degree(vertex) != reference.degree(vertex) ||
+          !Arrays.equals(packed(g.getNeighbors(vertex)),
+                         packed(reference.getNeighbors(vertex)))) {
+        System.out.println("ConcurrentWUGraph lists the wrong edges of " + i + ".");
+        return 0;
+      }
+    }
+    return 1;
+  }
+
+  // consistent returns null if every edge g lists appears at both ends with one weight and is counted, or else what is wrong;
+  private static String consistent(ConcurrentWUGraph g, int lo, int hi) {
+    int entries = 0;
+    int selfEdges = 0;
+    int vertices = 0;
+    for (int i = lo; i < hi; i++) {
+      Integer vertex = Integer.valueOf(i);
+      if (!g.isVertex(vertex)) {
+        continue;
+      }
+      vertices++;
+      Neighbors neigh = g.getNeighbors(vertex);
+      int d = (neigh == null) ? 0 : neigh.neighborList.length;
+      if (d != g.degree(vertex)) {
+        return "degree() of " + i + " is " + g.degree(vertex) + " but it lists " + d + " edges.";
+      }
+      for (int j = 0; j < d; j++) {
+        Object other = neigh.neighborList[j];
+        if (!g.isEdge(vertex, other) || g.weight(vertex, other) != neigh.weightList[j]) {
+          return i + " lists edge (" + i + ", " + other + ") that the graph does not have.";
+        }
+        if (other.equals(vertex)) {
+          selfEdges++;
+        } else if (g.getNeighbors(other) == null ||
+                   !Arrays.asList(g.getNeighbors(other).neighborList).contains(vertex)) {
+          return other + " does not list edge (" + other + ", " + i + ").";
+        }
+      }
+      entries += d;
+    }
+    if (vertices != g.vertexCount() || entries + selfEdges != 2 * g.edgeCount()) {
+      return "The graph has " + g.vertexCount() + " vertices and " + g.edgeCount() +
+             " edges but lists " + vertices + " and " + (entries + selfEdges) / 2 + ".";
+    }
+    return null;
+  }
+
+  // a Gate stops one thread at its given hashCode() call of a Key until it is opened;
+  private static class Gate {
+    private final Thread thread;
+    private int calls;
+    private boolean reached;
+    private boolean open;
+
+    Gate(Thread thread, int calls) {
+      this.thread = thread;
+      this.calls = calls;
+    }
+
+    synchronized void pass() throws InterruptedException {
+      if (Thread.currentThread() == thread) {
+        calls--;
+        if (calls == 0) {
+          reached = true;
+          notifyAll();
+          while (!open) {
+            wait();
+          }
+        }
+      }
+    }
+
+    synchronized void awaitReached() throws InterruptedException {
+      while (!reached) {
+        wait();
+      }
+    }
+
+    synchronized void open() {
+      open = true;
+      notifyAll();
+    }
+  }
+
+  private static volatile Gate[] gates = new Gate[0];
+
+  // a Key is a vertex that lets the gates stop threads when the graph hashes it;
+  private static class Key {
+    private final int id;
+
+    Key(int id) {
+      this.id = id;
+    }
+
+    public int hashCode() {
+      Gate[] current = gates;
+      for (int i = 0; i < current.length; i++) {
+        try {
+          current[i].pass();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return id;
+    }
+
+    public boolean equals(Object o) {
+      return (o instanceof Key) && ((Key) o).id == id;
+    }
+
+    public String toString() {
+      return "k" + id;
+    }
+  }
+
+  // staleRemoveTest returns 1 if a removeEdge() that looked up an end before it was re-added waits for its lock;
+  private static int staleRemoveTest() throws InterruptedException {
+    final ConcurrentWUGraph g = new ConcurrentWUGraph();
+    g.addVertex(new Key(1));
+    g.addVertex(new Key(2));
+    g.addVertex(new Key(3));
+    g.addEdge(new Key(1), new Key(2), 1);
+    // the remover stops after looking up k1, at its hashing of k2;
+    Thread remover = new Thread() {
+      public void run() {
+        g.removeEdge(new Key(1), new Key(2));
+      }
+    };
+    // the adder stops while it holds the locks of k3 and the new k1, at its hashing of the edge;
+    Thread adder = new Thread() {
+      public void run() {
+        g.addEdge(new Key(1), new Key(3), 3);
+      }
+    };
+    Gate stale = new Gate(remover, 3);
+    Gate holding = new Gate(adder, 5);
+    gates = new Gate[] {stale, holding};
+    remover.start();
+    stale.awaitReached();
+    g.removeVertex(new Key(1));
+    g.addVertex(new Key(1));
+    g.addEdge(new Key(1), new Key(2), 2);
+    adder.start();
+    holding.awaitReached();
+    // the edge (k1, k2) now in the graph belongs to the new k1, whose lock the remover must wait for;
+    stale.open();
+    remover.join(500);
+    boolean waited = remover.isAlive();
+    holding.open();
+    remover.join();
+    adder.join();
+    gates = new Gate[0];
+    if (!waited) {
+      System.out.println("removeEdge() unlinked an edge without holding its vertex's lock.");
+      return 0;
+    }
+    if (g.isEdge(new Key(1), new Key(2)) || g.weight(new Key(1), new Key(3)) != 3 ||
+        g.degree(new Key(1)) != 1 || g.edgeCount() != 1) {
+      System.out.println("removeEdge() and addEdge() racing a re-added vertex leave the wrong edges.");
+      return 0;
+    }
+    return 1;
+  }
+
+  // reAddTest returns 1 if removing edges while their ends are removed and re-added leaves a sound graph;
+  private static int reAddTest() throws InterruptedException {
+    System.out.println("Running ConcurrentWUGraph re-add test.");
+    if (staleRemoveTest() == 0) {
+      return 0;
+    }
+    // a few vertices, numbered 1000 and up so that every boxing makes a new object;
+    final int lo = 1000;
+    final int hi = lo + 12;
+    final int steps = 200000;
+    final ConcurrentWUGraph g = new ConcurrentWUGraph();
+    for (int i = lo; i < hi; i++) {
+      g.addVertex(Integer.valueOf(i));
+    }
+    done = false;
+    // one thread removes edges, one removes vertices and adds them (and edges at them) back,
+    // and one adds edges, which it can only do at a vertex while holding that vertex's lock;
+    Thread[] threads = new Thread[3];
+    for (int t = 0; t < threads.length; t++) {
+      final int id = t;
+      threads[t] = new Thread() {
+        public void run() {
+          Random r = new Random(17 + id);
+          for (int i = 0; i < steps; i++) {
+            Integer u = Integer.valueOf(lo + r.nextInt(hi - lo));
+            Integer v = Integer.valueOf(lo + r.nextInt(hi - lo));
+            if (id == 0) {
+              g.removeEdge(u, v);
+            } else if (id == 1 && i % 4 == 0) {
+              g.removeVertex(u);
+              g.addVertex(Integer.valueOf(u.intValue()));
+            } else {
+              g.addEdge(u, v, i);
+            }
+          }
+        }
+      };
+    }
+    join(threads);
+    String problem = consistent(g, lo, hi);
+    if (problem != null) {
+      System.out.println(problem);
+      return 0;
+    }
+    for (int i = lo; i < hi; i++) {
+      g.removeVertex(Integer.valueOf(i));
+    }
+    if (g.vertexCount() != 0 || g.edgeCount() != 0) {
+      System.out.println("An emptied ConcurrentWUGraph has " + g.vertexCount() +
+                         " vertices and " + g.edgeCount() + " edges.");
+      return 0;
+    }
+    return 1;
+  }
+
+  // rows returns the sorted (neighbor id, weight) pairs of vertex i of g, or null if its edge ids are wrong;
+  private static long[] rows(CsrGraph g, int i, int[] seen) {
+    int start = g.offsets()[i];
+    long[] keys = new long[g.degree(i)];
+    for (int k = 0; k < keys.length; k++) {
+      int t = g.targets()[start + k];
+      int e = g.edgeIds()[start + k];
+      if (e < 0 || e >= g.edgeCount()) {
+        return null;
+      }
+      // an edge is seen once from each end, or once in all if it is a self-edge;
+      seen[e] += (t == i) ? 2 : 1;
+      keys[k] = ((long) t << 32) | (g.weights()[start + k] & 0xffffffffL);
+    }
+    Arrays.sort(keys);
+    return keys;
+  }
+
+  // sameSnapshot returns true if s reads exactly as the frozen graph f;
+  private static boolean sameSnapshot(GraphSnapshot s, CsrGraph f) {
+    if (s.vertexCount() != f.vertexCount() || s.edgeCount() != f.edgeCount()) {
+      return false;
+    }
+    Object[] vertArray = s.getVertices();
+    for (int i = 0; i < vertArray.length; i++) {
+      if (vertArray[i] != f.vertex(i)) {
+        return false;
+      }
+      // look each vertex up through a copy, as callers who rebox their keys do;
+      Integer vertex = Integer.valueOf(((Integer) vertArray[i]).intValue());
+      if (!s.isVertex(vertex) || s.degree(vertex) != f.degree(i)) {
+        return false;
+      }
+      Neighbors neigh = s.getNeighbors(vertex);
+      long[] keys = new long[f.degree(i)];
+      for (int k = 0; k < keys.length; k++) {
+        int t = f.indexOf(neigh.neighborList[k]);
+        keys[k] = ((long) t << 32) | (neigh.weightList[k] & 0xffffffffL);
+      }
+      Arrays.sort(keys);
+      if (!Arrays.equals(keys, rows(f, i, new int[f.edgeCount()]))) {
+        return false;
+      }
+    }
+    CsrGraph c = s.csr();
+    if (c.vertexCount() != f.vertexCount() || c.edgeCount() != f.edgeCount()) {
+      return false;
+    }
+    int[] seen = new int[c.edgeCount()];
+    for (int i = 0; i < vertArray.length; i++) {
+      long[] keys = rows(c, i, seen);
+      if (c.vertex(i) != vertArray[i] || c.indexOf(vertArray[i]) != i ||
+          keys == null || !Arrays.equals(keys, rows(f, i, new int[f.edgeCount()]))) {
+        return false;
+      }
+    }
+    for (int e = 0; e < seen.length; e++) {
+      if (seen[e] != 2) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static volatile GraphSnapshot latest;
+
+  // snapshotTest returns 1 if every snapshot reads as the graph did when it was taken;
+  private static int snapshotTest() throws InterruptedException {
+    System.out.println("Running snapshot test.");
+    Random random = new Random(11);
+    int n = 300;
+    int count = 300;
+    WUGraph g = new WUGraph();
+    GraphSnapshot[] snapshots = new GraphSnapshot[count];
+    CsrGraph[] frozen = new CsrGraph[count];
+    // a reader builds the CsrGraph of the newest snapshot, which the graph may then adopt as its base;
+    done = false;
+    latest = null;
+    Thread reader = new Thread() {
+      public void run() {
+        while (!done) {
+          GraphSnapshot s = latest;
+          if (s != null) {
+            s.csr();
+          }
+          Thread.yield();
+        }
+      }
+    };
+    reader.start();
+    for (int j = 0; j < count; j++) {
+      // vertices are 1000 and up, so every boxing makes a new object;
+      int steps = (j % 10 == 0) ? 2000 : random.nextInt(200);
+      for (int i = 0; i < steps; i++) {
+        Integer u = Integer.valueOf(1000 + random.nextInt(n));
+        Integer v = Integer.valueOf(1000 + random.nextInt(n));
+        int op = random.nextInt(20);
+        if (op < 3) {
+          g.addVertex(u);
+        } else if (op < 4) {
+          g.removeVertex(u);
+        } else if (op < 14) {
+          g.addEdge(u, v, random.nextInt(50));
+        } else {
+          g.removeEdge(u, v);
+        }
+      }
+      snapshots[j] = g.snapshot();
+      frozen[j] = g.freeze();
+      if (random.nextBoolean()) {
+        latest = snapshots[j];
+      }
+      if (j % 7 == 0) {
+        snapshots[j].csr();
+      }
+    }
+    done = true;
+    reader.join();
+    for (int j = 0; j < count; j++) {
+      if (!sameSnapshot(snapshots[j], frozen[j])) {
+        System.out.println("Snapshot " + j + " differs from the graph it was taken of.");
+        return 0;
+      }
+    }
+    return 1;
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    int score = graphTest() + reAddTest() + snapshotTest();
+    System.out.println("Your concurrent test score is " + score + " out of 3.");
+  }
+}
@@ -0,0 +1,155 @@
+/* DictTest.java */
+
+/**
+ * The DictTest class checks the primitive and open-addressing structures
+ * against the classes they stand in for:  OpenHashTable against
+ * HashTableChained (with and without incremental resizing), and IntWUGraph
+ * against WUGraph.  Both sides of each pair get the same random operations,
+ * and every answer must agree.  Keys are looked up through copies, equal to
+ * but not the same objects as the ones inserted.
+ */
+
+import dict.*;
+import graph.*;
+import java.util.Arrays;
+import java.util.Random;
+
+public class DictTest {
+
+  private static final int OPERATIONS = 200000;
+
+  // key returns a fresh object equal to every other key(i);
+  private static Object key(int i) {
+    return new String("k" + i);
+  }
+
+  // dictionaryTest returns 1 if the three tables agree on every operation;
+  private static int dictionaryTest() {
+    System.out.println("Running dictionary test.");
+    Random random = new Random(4);
+    Dictionary open = new OpenHashTable();
+    HashTableChained chained = new HashTableChained();
+    HashTableChained incremental = new HashTableChained();
+    incremental.setIncrementalResize(true);
+    Dictionary[] tables = {chained, incremental, open};
+    for (int i = 0; i < OPERATIONS; i++) {
+      int k = random.nextInt(5000);
+      int op = random.nextInt(10);
+      boolean[] answers = new boolean[tables.length];
+      for (int t = 0; t < tables.length; t++) {
+        if (op < 4) {
+          // a key may be inserted more than once; each copy is a separate entry;
+          Entry e = tables[t].insert(key(k), Integer.valueOf(k));
+          answers[t] = e.key().equals(key(k));
+          if (tables[t] != open) {
+            ((HashTableChained) tables[t]).resize();
+          }
+        } else if (op < 7) {
+          Entry e = tables[t].remove(key(k));
+          answers[t] = (e != null);
+          if (e != null && !e.key().equals(key(k))) {
+            System.out.println("remove() returned the wrong entry.");
+            return 0;
+          }
+        } else {
+          Entry e = tables[t].find(key(k));
+          answers[t] = (e != null);
+          if (e != null && !e.value().equals(Integer.valueOf(k))) {
+            System.out.println("find() returned the wrong entry.");
+            return 0;
+          }
+        }
+        if (tables[t].size() != tables[0].size()) {
+          System.out.println("size() is " + tables[t].size() + " but should be " +
+                             tables[0].size() + " after operation " + i + ".");
+          return 0;
+        }
+      }
+      if (answers[1] != answers[0] || answers[2] != answers[0]) {
+        System.out.println("The tables differ on operation " + i + ".");
+        return 0;
+      }
+      if (random.nextInt(OPERATIONS / 4) == 0) {
+        for (int t = 0; t < tables.length; t++) {
+          tables[t].makeEmpty();
+        }
+      }
+    }
+    return 1;
+  }
+
+  // sameNeighbors returns true if g and h list the same neighbors and weights for vertex v;
+  private static boolean sameNeighbors(WUGraph g, IntWUGraph h, int v) {
+    Neighbors a = g.getNeighbors(Integer.valueOf(v));
+    IntNeighbors b = h.getNeighbors(v);
+    if (a == null || b == null) {
+      return a == null && b == null;
+    }
+    if (a.neighborList.length != b.neighborList.length) {
+      return false;
+    }
+    long[] x = new long[a.neighborList.length];
+    long[] y = new long[x.length];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = ((long) ((Integer) a.neighborList[i]).intValue() << 32) |
+             (a.weightList[i] & 0xffffffffL);
+      y[i] = ((long) b.neighborList[i] << 32) | (b.weightList[i] & 0xffffffffL);
+    }
+    Arrays.sort(x);
+    Arrays.sort(y);
+    return Arrays.equals(x, y);
+  }
+
+  // intGraphTest returns 1 if an IntWUGraph and a WUGraph agree on every operation;
+  private static int intGraphTest() {
+    System.out.println("Running IntWUGraph test.");
+    Random random = new Random(2);
+    int n = 300;
+    WUGraph g = new WUGraph();
+    IntWUGraph h = new IntWUGraph();
+    for (int i = 0; i < OPERATIONS / 4; i++) {
+      int u = random.nextInt(n);
+      int v = random.nextInt(n);
+      int op = random.nextInt(20);
+      // vertices are boxed afresh each time, so most are not the objects first added;
+      if (op < 2) {
+        g.addVertex(Integer.valueOf(u));
+        h.addVertex(u);
+      } else if (op < 3) {
+        g.removeVertex(Integer.valueOf(u));
+        h.removeVertex(u);
+      } else if (op < 12) {
+        int w = random.nextInt(100);
+        g.addEdge(Integer.valueOf(u), Integer.valueOf(v), w);
+        h.addEdge(u, v, w);
+      } else if (op < 16) {
+        g.removeEdge(Integer.valueOf(u), Integer.valueOf(v));
+        h.removeEdge(u, v);
+      }
+      if (g.vertexCount() != h.vertexCount() || g.edgeCount() != h.edgeCount()) {
+        System.out.println("IntWUGraph has " + h.vertexCount() + " vertices and " +
+                           h.edgeCount() + " edges but should have " +
+                           g.vertexCount() + " and " + g.edgeCount() + ".");
+        return 0;
+      }
+      if (g.isVertex(Integer.valueOf(u)) != h.isVertex(u) ||
+          g.isEdge(Integer.valueOf(u), Integer.valueOf(v)) != h.isEdge(u, v) ||
+          g.weight(Integer.valueOf(u), Integer.valueOf(v)) != h.weight(u, v) ||
+          g.degree(Integer.valueOf(u)) != h.degree(u)) {
+        System.out.println("IntWUGraph differs from WUGraph on (" + u + ", " +
+                           v + ") after operation " + i + ".");
+        return 0;
+      }
+      if (!sameNeighbors(g, h, u)) {
+        System.out.println("IntWUGraph lists the wrong neighbors of " + u + ".");
+        return 0;
+      }
+    }
+    return 1;
+  }
+
+  public static void main(String[] args) {
+    int score = dictionaryTest() + intGraphTest();
+    System.out.println("Your dictionary test score is " + score + " out of 2.");
+  }
+}
@@ -0,0 +1,259 @@
+/* DynamicTest.java */
+
+/**
+ * The DynamicTest class checks the classes that follow a changing graph
+ * against answers recomputed from scratch after every change.  A WUGraph
+ * takes random vertex and edge insertions and removals, each naming its
+ * vertices by fresh copies, and the dynamic structure is fed the same
+ * changes.
+ */
+
+import dict.*;
+import graph.*;
+import graphalg.*;
+import set.*;
+import java.util.Random;
+
+public class DynamicTest {
+
+  // name returns a new object for vertex i, equal to, but not the same as, any other name(i);
+  private static Object name(int i) {
+    return new String("v" + i);
+  }
+
+  // connected returns true if u and v are connected in g, recomputed from scratch;
+  private static boolean connected(WUGraph g, Object u, Object v) {
+    if (!g.isVertex(u) || !g.isVertex(v)) {
+      return false;
+    }
+    Object[] vertArray = g.getVertices();
+    OpenHashTable ids = new OpenHashTable();
+    for (int i = 0; i < vertArray.length; i++) {
+      ids.insert(vertArray[i], Integer.valueOf(i));
+    }
+    DisjointSets sets = new DisjointSets(vertArray.length);
+    for (int i = 0; i < vertArray.length; i++) {
+      Neighbors neigh = g.getNeighbors(vertArray[i]);
+      if (neigh != null) {
+        for (int j = 0; j < neigh.neighborList.length; j++) {
+          int root1 = sets.find(i);
+          int root2 = sets.find(((Integer) ids.get(neigh.neighborList[j])).intValue());
+          if (root1 != root2) {
+            sets.union(root1, root2);
+          }
+        }
+      }
+    }
+    return sets.find(((Integer) ids.get(u)).intValue()) ==
+           sets.find(((Integer) ids.get(v)).intValue());
+  }
+
+  // offlineTest returns 1 if OfflineConnectivity answers every query as a fresh search does;
+  private static int offlineTest() {
+    System.out.println("Running OfflineConnectivity test.");
+    Random random = new Random(18);
+    for (int trial = 0; trial < 10; trial++) {
+      int n = 10 + random.nextInt(60);
+      WUGraph g = new WUGraph();
+      for (int i = 0; i < n / 2; i++) {
+        g.addVertex(name(i));
+        g.addEdge(name(i), name(random.nextInt(i + 1)), 0);
+      }
+      // half the trials start from a graph, the other half replay it from nothing;
+      OfflineConnectivity offline;
+      if (trial % 2 == 0) {
+        offline = new OfflineConnectivity(g);
+      } else {
+        offline = new OfflineConnectivity();
+        Object[] vertArray = g.getVertices();
+        for (int i = 0; i < vertArray.length; i++) {
+          offline.addVertex(new String((String) vertArray[i]));
+        }
+        for (int i = 0; i < vertArray.length; i++) {
+          Neighbors neigh = g.getNeighbors(vertArray[i]);
+          for (int j = 0; neigh != null && j < neigh.neighborList.length; j++) {
+            offline.addEdge(vertArray[i], neigh.neighborList[j]);
+          }
+        }
+      }
+      int steps = 3000;
+      boolean[] expected = new boolean[steps];
+      int count = 0;
+      for (int i = 0; i < steps; i++) {
+        Object u = name(random.nextInt(n));
+        Object v = name(random.nextInt(n));
+        int op = random.nextInt(20);
+        if (op < 2) {
+          g.addVertex(u);
+          offline.addVertex(u);
+        } else if (op < 3) {
+          g.removeVertex(u);
+          offline.removeVertex(u);
+        } else if (op < 9) {
+          g.addEdge(u, v, 0);
+          offline.addEdge(u, v);
+        } else if (op < 13) {
+          g.removeEdge(u, v);
+          offline.removeEdge(u, v);
+        } else {
+          if (offline.query(u, v) != count) {
+            System.out.println("query() returned the wrong query number.");
+            return 0;
+          }
+          expected[count] = connected(g, u, v);
+          count++;
+        }
+      }
+      boolean[] answers = offline.solve();
+      if (answers.length != count) {
+        System.out.println("solve() returned " + answers.length +
+                           " answers but should have returned " + count + ".");
+        return 0;
+      }
+      for (int q = 0; q < count; q++) {
+        if (answers[q] != expected[q]) {
+          System.out.println("Query " + q + " of trial " + trial + " should be " +
+                             expected[q] + ".");
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+
+  // sameForest returns true if the DynamicMst of g has the forest Kruskal recomputes from scratch;
+  private static boolean sameForest(WUGraph g, DynamicMst mst, String name) {
+    MstResult expected = Kruskal.minSpanForest(g);
+    if (mst.totalWeight() != expected.totalWeight() ||
+        mst.edgeCount() != expected.edgeCount()) {
+      System.out.println(name + " has " + mst.edgeCount() + " edges of weight " +
+                         mst.totalWeight() + " but should have " +
+                         expected.edgeCount() + " edges of weight " +
+                         expected.totalWeight() + ".");
+      return false;
+    }
+    WUGraph tree = mst.toGraph();
+    Object[] vertArray = tree.getVertices();
+    long weight = 0;
+    int ends = 0;
+    for (int i = 0; i < vertArray.length; i++) {
+      Neighbors neigh = tree.getNeighbors(vertArray[i]);
+      for (int j = 0; neigh != null && j < neigh.neighborList.length; j++) {
+        Object other = neigh.neighborList[j];
+        if (g.weight(vertArray[i], other) != neigh.weightList[j] ||
+            !mst.isForestEdge(vertArray[i], other)) {
+          System.out.println(name + " has a forest edge that is not in the graph.");
+          return false;
+        }
+        weight += neigh.weightList[j];
+        ends++;
+      }
+    }
+    if (tree.vertexCount() != g.vertexCount() || weight != 2 * expected.totalWeight() ||
+        ends != 2 * expected.edgeCount()) {
+      System.out.println(name + " returns the wrong graph from toGraph().");
+      return false;
+    }
+    return true;
+  }
+
+  // dynamicMstTest returns 1 if DynamicMst keeps the minimum spanning forest through every change;
+  private static int dynamicMstTest() {
+    System.out.println("Running DynamicMst test.");
+    Random random = new Random(19);
+    for (int trial = 0; trial < 10; trial++) {
+      int n = 5 + random.nextInt(60);
+      int maxWeight = (trial % 2 == 0) ? 5 : 1000;
+      WUGraph g = new WUGraph();
+      for (int i = 0; i < n / 2; i++) {
+        g.addVertex(name(i));
+        g.addEdge(name(i), name(random.nextInt(i + 1)), random.nextInt(maxWeight));
+      }
+      DynamicMst mst = new DynamicMst(g);
+      if (!sameForest(g, mst, "The starting forest of trial " + trial)) {
+        return 0;
+      }
+      for (int i = 0; i < 2000; i++) {
+        Object u = name(random.nextInt(n));
+        Object v = name(random.nextInt(n));
+        int op = random.nextInt(20);
+        if (op < 2) {
+          g.addVertex(u);
+        } else if (op < 3) {
+          g.removeVertex(u);
+        } else if (op < 12) {
+          // adding an edge already there changes its weight, up or down;
+          g.addEdge(u, v, random.nextInt(maxWeight) - maxWeight / 5);
+        } else {
+          g.removeEdge(u, v);
+        }
+        // let a few changes pile up before looking;
+        if (random.nextInt(4) == 0 &&
+            !sameForest(g, mst, "The forest after change " + i + " of trial " + trial)) {
+          return 0;
+        }
+      }
+      // once closed, the forest no longer follows the graph;
+      mst.close();
+      long weight = mst.totalWeight();
+      g.removeVertex(name(0));
+      g.removeVertex(name(1));
+      if (mst.totalWeight() != weight) {
+        System.out.println("A closed DynamicMst still follows the graph.");
+        return 0;
+      }
+    }
+    return 1;
+  }
+
+  // churnTest returns 1 if DynamicMst stays right when batches of vertices, with their forest edges, come and go;
+  private static int churnTest() {
+    System.out.println("Running DynamicMst vertex churn test.");
+    Random random = new Random(20);
+    for (int trial = 0; trial < 20; trial++) {
+      int n = 10 + random.nextInt(100);
+      WUGraph g = new WUGraph();
+      // a sparse graph of many small trees, so that a batch often removes a whole tree;
+      for (int i = 0; i < n; i++) {
+        g.addVertex(name(i));
+      }
+      int m = (trial % 2 == 0) ? n / 2 : 3 * n;
+      for (int i = 0; i < m; i++) {
+        g.addEdge(name(random.nextInt(n)), name(random.nextInt(n)), random.nextInt(100));
+      }
+      DynamicMst mst = new DynamicMst(g);
+      for (int round = 0; round < 200; round++) {
+        // remove a few vertices, perhaps neighbors of one another, before anything is asked;
+        int removals = 1 + random.nextInt(4);
+        Object u = name(random.nextInt(n));
+        for (int i = 0; i < removals; i++) {
+          Neighbors neigh = g.getNeighbors(u);
+          if (random.nextBoolean()) {
+            g.removeEdge(u, name(random.nextInt(n)));
+          }
+          g.removeVertex(u);
+          u = (neigh != null && random.nextBoolean()) ?
+              neigh.neighborList[random.nextInt(neigh.neighborList.length)] :
+              name(random.nextInt(n));
+        }
+        if (!sameForest(g, mst, "The forest after round " + round + " of trial " + trial)) {
+          return 0;
+        }
+        // then put vertices back, with a few edges each;
+        for (int i = 0; i < removals; i++) {
+          Object v = name(random.nextInt(n));
+          g.addVertex(v);
+          for (int j = random.nextInt(4); j > 0; j--) {
+            g.addEdge(v, name(random.nextInt(n)), random.nextInt(100));
+          }
+        }
+      }
+    }
+    return 1;
+  }
+
+  public static void main(String[] args) {
+    int score = offlineTest() + dynamicMstTest() + churnTest();
+    System.out.println("Your dynamic test score is " + score + " out of 3.");
+  }
+}
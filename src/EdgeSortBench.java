@@ -0,0 +1,79 @@
+/* EdgeSortBench.java */
+
+/**
+ * The EdgeSortBench class compares the ways Kruskal can order its edges:
+ * EdgeSort (counting or radix sort), sorting packed (weight, edge id) longs
+ * with Arrays.sort, and the old Kedge quicksort.  It runs each on uniform
+ * weights over the whole int range, skewed weights (mostly small, with a long
+ * tail), and weights from a small range, and prints the milliseconds taken.
+ *
+ * Usage:  java -Xms3g -Xmx3g EdgeSortBench [edges]   (edges defaults to 5,000,000)
+ * A fixed heap keeps garbage collection from swamping the sort times.
+ */
+
+import graphalg.*;
+import java.util.Arrays;
+import java.util.Random;
+
+public class EdgeSortBench {
+
+  private static int[] weights(String kind, int m, Random random) {
+    int[] w = new int[m];
+    for (int i = 0; i < m; i++) {
+      if (kind.equals("uniform")) {
+        w[i] = random.nextInt();
+      } else if (kind.equals("skewed")) {
+        w[i] = (int) Math.min(Integer.MAX_VALUE, Math.exp(random.nextDouble() * 21));
+      } else {
+        w[i] = random.nextInt(1000);
+      }
+    }
+    return w;
+  }
+
+  private static void run(String kind, int m) {
+    int[] w = weights(kind, m, new Random(0));
+
+    long start = System.nanoTime();
+    int[] order = EdgeSort.order(w, m);
+    long edgeSort = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    long[] keys = new long[m];
+    for (int e = 0; e < m; e++) {
+      keys[e] = ((long) w[e] << 32) | e;
+    }
+    Arrays.sort(keys);
+    long packed = System.nanoTime() - start;
+
+    Kedge[] kedges = new Kedge[m];
+    for (int e = 0; e < m; e++) {
+      kedges[e] = new Kedge(null, null, w[e]);
+    }
+    start = System.nanoTime();
+    Kruskal.quicksort(kedges);
+    long quicksort = System.nanoTime() - start;
+
+    for (int i = 0; i < m; i++) {
+      if (order[i] != (int) keys[i]) {
+        throw new RuntimeException("EdgeSort disagrees at " + i);
+      }
+    }
+    System.out.println(kind + ":  EdgeSort " + edgeSort / 1000000 +
+                       " ms  packed Arrays.sort " + packed / 1000000 +
+                       " ms  Kedge quicksort " + quicksort / 1000000 + " ms");
+  }
+
+  public static void main(String[] args) {
+    int m = 5000000;
+    if (args.length > 0) {
+      m = Integer.parseInt(args[0]);
+    }
+    // run everything twice and let the second round, after warm-up, count;
+    for (int round = 0; round < 2; round++) {
+      run("uniform", m);
+      run("skewed", m);
+      run("small-range", m);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/* ExternalKruskalBench.java */
+
+/**
+ * The ExternalKruskalBench class streams random edges into an ExternalKruskal
+ * without ever holding them, then prints how long the runs took to write and
+ * merge, how many runs there were, and the weight of the forest.  Run it with
+ * a heap far smaller than the edges (20 bytes each on disk) to see that the
+ * memory budget, not the edge count, bounds the heap.
+ *
+ * Usage:  java -Xmx64m ExternalKruskalBench [vertices] [edges] [budgetMB]
+ *         (defaults 1,000,000 / 20,000,000 / 16)
+ */
+
+import graphalg.*;
+import java.io.IOException;
+import java.util.Random;
+
+public class ExternalKruskalBench {
+
+  public static void main(String[] args) throws IOException {
+    int n = 1000000;
+    long m = 20000000;
+    long budget = 16L << 20;
+    if (args.length > 0) {
+      n = Integer.parseInt(args[0]);
+    }
+    if (args.length > 1) {
+      m = Long.parseLong(args[1]);
+    }
+    if (args.length > 2) {
+      budget = Long.parseLong(args[2]) << 20;
+    }
+    Random random = new Random(0);
+    ExternalKruskal kruskal = new ExternalKruskal(n, budget);
+
+    long start = System.nanoTime();
+    for (long i = 0; i < m; i++) {
+      kruskal.addEdge(random.nextInt(n), random.nextInt(n), random.nextInt(1000000));
+    }
+    long added = System.nanoTime();
+    EdgeList forest = kruskal.minSpanForest();
+    long done = System.nanoTime();
+
+    long weight = 0;
+    for (int i = 0; i < forest.size; i++) {
+      weight += forest.w[i];
+    }
+    Runtime runtime = Runtime.getRuntime();
+    System.out.println(n + " vertices, " + m + " edges, budget "
+                       + (budget >> 20) + " MB, max heap "
+                       + (runtime.maxMemory() >> 20) + " MB");
+    System.out.println("  add and write runs: " + (added - start) / 1000000 + " ms");
+    System.out.println("  merge and choose:   " + (done - added) / 1000000 + " ms");
+    System.out.println("  forest: " + forest.size + " edges, weight " + weight);
+  }
+}
@@ -0,0 +1,62 @@
+/* HashBench.java */
+
+/**
+ * The HashBench class measures how lookup cost in the dictionaries grows with
+ * the number of keys.  It inserts the Integers 0...n-1 (sequential codes, the
+ * worst case for a weak compression function) and, every time the table
+ * grows tenfold, times a batch of random successful finds.  With a compression
+ * function that uses the whole table the cost per find stays flat.
+ *
+ * Usage:  java -Xmx4g HashBench [n]   (n defaults to 10,000,000)
+ */
+
+import dict.*;
+import java.util.Random;
+
+public class HashBench {
+
+  private static final int LOOKUPS = 1000000;
+
+  private static void run(String name, Dictionary table, int n, boolean chained) {
+    System.out.println(name + ":");
+    Random random = new Random(0);
+    int next = 1000;
+    for (int i = 0; i < n; i++) {
+      if (chained) {
+        ((HashTableChained) table).resize();
+      }
+      table.insert(Integer.valueOf(i), "v");
+      if (i + 1 == next || i + 1 == n) {
+        int size = i + 1;
+        Integer[] probes = new Integer[LOOKUPS];
+        for (int j = 0; j < LOOKUPS; j++) {
+          probes[j] = Integer.valueOf(random.nextInt(size));
+        }
+        long start = System.nanoTime();
+        for (int j = 0; j < LOOKUPS; j++) {
+          if (table.find(probes[j]) == null) {
+            throw new RuntimeException("lost key " + probes[j]);
+          }
+        }
+        long elapsed = System.nanoTime() - start;
+        String extra = "";
+        if (chained) {
+          HashTableChained t = (HashTableChained) table;
+          extra = "  buckets " + t.numBuckets + "  collisions " + t.collisions();
+        }
+        System.out.println("  keys " + size + "  ns/find " +
+                           (elapsed / LOOKUPS) + extra);
+        next *= 10;
+      }
+    }
+  }
+
+  public static void main(String[] args) {
+    int n = 10000000;
+    if (args.length > 0) {
+      n = Integer.parseInt(args[0]);
+    }
+    run("HashTableChained", new HashTableChained(), n, true);
+    run("OpenHashTable", new OpenHashTable(), n, false);
+  }
+}
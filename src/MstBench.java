@@ -0,0 +1,84 @@
+/* MstBench.java */
+
+/**
+ * The MstBench class compares Kruskal and Prim as the graph gets denser.  For
+ * a fixed number of vertices it builds random graphs with 1, 2, 4, ... edges
+ * per vertex, times both engines on the same frozen graph, and prints the
+ * milliseconds taken and which engine MinSpanTree would pick.  The point at
+ * which Prim starts to win is the crossover MinSpanTree uses.  It also
+ * times lazy Kruskal, which heapifies instead of sorting.
+ *
+ * Usage:  java -Xms4g -Xmx4g MstBench [vertices] [maxEdgesPerVertex]
+ *         (defaults 20,000 / 256)
+ */
+
+import graph.*;
+import graphalg.*;
+import java.util.Random;
+
+public class MstBench {
+
+  private static final int RUNS = 3;
+
+  public static void main(String[] args) {
+    int n = 20000;
+    int maxRatio = 256;
+    if (args.length > 0) {
+      n = Integer.parseInt(args[0]);
+    }
+    if (args.length > 1) {
+      maxRatio = Integer.parseInt(args[1]);
+    }
+    Integer[] vertArray = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      vertArray[i] = Integer.valueOf(i);
+    }
+    Random random = new Random(0);
+
+    for (int ratio = 1; ratio <= maxRatio; ratio *= 2) {
+      int m = n * ratio;
+      Object[] us = new Object[m];
+      Object[] vs = new Object[m];
+      int[] ws = new int[m];
+      for (int i = 0; i < m; i++) {
+        us[i] = vertArray[random.nextInt(n)];
+        vs[i] = vertArray[random.nextInt(n)];
+        ws[i] = random.nextInt(1000000);
+      }
+      WUGraph g = new WUGraph(n, m);
+      g.addVertices(vertArray);
+      g.addEdges(us, vs, ws);
+      CsrGraph csr = g.freeze();
+      us = null;
+      vs = null;
+      g = null;
+
+      // one untimed run of each to warm up, then the best of RUNS;
+      long kruskal = Long.MAX_VALUE;
+      long prim = Long.MAX_VALUE;
+      long lazy = Long.MAX_VALUE;
+      for (int run = 0; run <= RUNS; run++) {
+        long start = System.nanoTime();
+        Kruskal.minSpanTree(csr);
+        long k = System.nanoTime() - start;
+        start = System.nanoTime();
+        Prim.minSpanTree(csr);
+        long p = System.nanoTime() - start;
+        start = System.nanoTime();
+        Kruskal.lazyMinSpanForest(csr).toGraph();
+        long l = System.nanoTime() - start;
+        if (run > 0) {
+          kruskal = Math.min(kruskal, k);
+          prim = Math.min(prim, p);
+          lazy = Math.min(lazy, l);
+        }
+      }
+      System.out.println("E/V " + csr.edgeCount() / n + ":  Kruskal " +
+                         kruskal / 1000000 + " ms  Prim " + prim / 1000000 +
+                         " ms  lazy Kruskal " + lazy / 1000000 +
+                         " ms  (MinSpanTree picks " +
+                         (MinSpanTree.choose(csr) == MinSpanTree.PRIM ? "Prim" : "Kruskal") +
+                         ")");
+    }
+  }
+}
@@ -0,0 +1,457 @@
+/* MstTest.java */
+
+/**
+ * The MstTest class checks the minimum spanning forests computed from
+ * WUGraph snapshots against a plain reference Kruskal, which reads the graph
+ * only through getNeighbors().  Vertices are Strings, and every edge is
+ * added with fresh copies of its vertex names, equal to but not the same
+ * objects as the ones given to addVertex(), as callers who rebuild their
+ * keys (or autobox large ints) do.  Every engine (Prim, Boruvka,
+ * FilterKruskal, MinSpanTree and MstCursor) must agree with the reference,
+ * and so must ExternalKruskal, both in memory and over enough edges to need
+ * more than one merge pass.  BottleneckIndex is checked against the heaviest
+ * edge found by a search of the reference forest from every vertex, and
+ * Clustering against the reference forest with its heaviest edges dropped.
+ */
+
+import dict.*;
+import graph.*;
+import graphalg.*;
+import set.*;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class MstTest {
+
+  private static final int MAXINT = 1000;
+
+  // names returns n distinct vertex names;
+  static Object[] names(int n) {
+    Object[] vertArray = new Object[n];
+    for (int i = 0; i < n; i++) {
+      vertArray[i] = "v" + i;
+    }
+    return vertArray;
+  }
+
+  // copy returns an object equal to, but not the same as, vertex;
+  static Object copy(Object vertex) {
+    return new String((String) vertex);
+  }
+
+  // randomGraph builds a graph on vertArray with about m random edges, each added with copied names;
+  static WUGraph randomGraph(Random random, Object[] vertArray, int m,
+                             int maxWeight) {
+    WUGraph g = new WUGraph();
+    for (int i = 0; i < vertArray.length; i++) {
+      g.addVertex(vertArray[i]);
+    }
+    for (int i = 0; i < m; i++) {
+      Object u = vertArray[random.nextInt(vertArray.length)];
+      Object v = vertArray[random.nextInt(vertArray.length)];
+      g.addEdge(copy(u), copy(v), random.nextInt(maxWeight) - maxWeight / 4);
+    }
+    return g;
+  }
+
+  // reference returns {total weight, edge count} of the minimum spanning forest of g;
+  static long[] reference(WUGraph g) {
+    Object[] vertArray = g.getVertices();
+    OpenHashTable ids = new OpenHashTable();
+    for (int i = 0; i < vertArray.length; i++) {
+      ids.insert(vertArray[i], Integer.valueOf(i));
+    }
+    // one key per edge, taken from its lower end:  weight in the high half, then the ends;
+    long[] keys = new long[g.edgeCount()];
+    int[] us = new int[g.edgeCount()];
+    int[] vs = new int[g.edgeCount()];
+    int count = 0;
+    for (int i = 0; i < vertArray.length; i++) {
+      Neighbors neigh = g.getNeighbors(vertArray[i]);
+      if (neigh != null) {
+        for (int j = 0; j < neigh.neighborList.length; j++) {
+          int t = ((Integer) ids.get(neigh.neighborList[j])).intValue();
+          if (t >= i) {
+            keys[count] = ((long) neigh.weightList[j] << 32) | count;
+            us[count] = i;
+            vs[count] = t;
+            count++;
+          }
+        }
+      }
+    }
+    Arrays.sort(keys, 0, count);
+    DisjointSets sets = new DisjointSets(vertArray.length);
+    long weight = 0;
+    long edges = 0;
+    for (int k = 0; k < count; k++) {
+      int e = (int) keys[k];
+      int root1 = sets.find(us[e]);
+      int root2 = sets.find(vs[e]);
+      if (root1 != root2) {
+        sets.union(root1, root2);
+        weight += keys[k] >> 32;
+        edges++;
+      }
+    }
+    return new long[] {weight, edges};
+  }
+
+  // isForest returns true if t has the vertices of g, only edges of g, and the reference weight and size;
+  static boolean isForest(WUGraph g, WUGraph t, long[] expected, String name) {
+    if (t.vertexCount() != g.vertexCount()) {
+      System.out.println(name + " has " + t.vertexCount() +
+                         " vertices but should have " + g.vertexCount() + ".");
+      return false;
+    }
+    long weight = 0;
+    Object[] vertArray = t.getVertices();
+    for (int i = 0; i < vertArray.length; i++) {
+      Neighbors neigh = t.getNeighbors(vertArray[i]);
+      if (neigh != null) {
+        for (int j = 0; j < neigh.neighborList.length; j++) {
+          if (!g.isEdge(vertArray[i], neigh.neighborList[j]) ||
+              g.weight(vertArray[i], neigh.neighborList[j]) != neigh.weightList[j]) {
+            System.out.println(name + " has an edge that is not in the graph.");
+            return false;
+          }
+          weight += neigh.weightList[j];
+        }
+      }
+    }
+    // every edge was counted from both ends, except self-edges, which a forest has none of;
+    weight /= 2;
+    if (weight != expected[0] || t.edgeCount() != expected[1]) {
+      System.out.println(name + " has " + t.edgeCount() + " edges of weight " +
+                         weight + " but should have " + expected[1] +
+                         " edges of weight " + expected[0] + ".");
+      return false;
+    }
+    return true;
+  }
+
+  // copiedVertexTest returns 1 if Kruskal finds the right forest when edges name vertices by copies;
+  private static int copiedVertexTest() {
+    System.out.println("Running copied-vertex test.");
+    boolean ok = true;
+
+    WUGraph g = new WUGraph();
+    g.addVertex("a");
+    g.addVertex("b");
+    g.addVertex("c");
+    g.addEdge(new String("a"), new String("b"), 4);
+    g.addEdge(new String("b"), new String("c"), 5);
+    g.addEdge(new String("a"), new String("c"), 6);
+    ok &= isForest(g, Kruskal.minSpanTree(g), new long[] {9, 2},
+                   "Kruskal tree of a, b, c");
+
+    Random random = new Random(1);
+    for (int trial = 0; trial < 20; trial++) {
+      Object[] vertArray = names(1 + random.nextInt(300));
+      g = randomGraph(random, vertArray, random.nextInt(1500),
+                      (trial % 2 == 0) ? 10 : MAXINT);
+      ok &= isForest(g, Kruskal.minSpanTree(g), reference(g),
+                     "Kruskal tree " + trial);
+    }
+    return ok ? 1 : 0;
+  }
+
+  // sameResult returns true if forest r has the reference weight and size, and its edges form a forest of g;
+  static boolean sameResult(WUGraph g, MstResult r, long[] expected, String name) {
+    if (r.totalWeight() != expected[0] || r.edgeCount() != expected[1] ||
+        r.componentCount() != g.vertexCount() - expected[1]) {
+      System.out.println(name + " has " + r.edgeCount() + " edges of weight " +
+                         r.totalWeight() + " but should have " + expected[1] +
+                         " edges of weight " + expected[0] + ".");
+      return false;
+    }
+    return isForest(g, r.toGraph(), expected, name);
+  }
+
+  // engineTest returns 1 if every MST engine finds a forest as light as the reference's;
+  private static int engineTest() {
+    System.out.println("Running MST engine test.");
+    boolean ok = true;
+    Random random = new Random(13);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    for (int trial = 0; trial < 22; trial++) {
+      // the last trials are big enough for the parallel engines to split their work;
+      int n = (trial < 20) ? 1 + random.nextInt(400) : 15000 + random.nextInt(5000);
+      int m = (trial < 20) ? random.nextInt(3000) : 5 * n;
+      Object[] vertArray = names(n);
+      WUGraph g = randomGraph(random, vertArray, m, (trial % 3 == 0) ? 10 : MAXINT);
+      long[] expected = reference(g);
+      CsrGraph c = g.freeze();
+      String t = " " + trial;
+      ok &= isForest(g, Prim.minSpanTree(g), expected, "Prim tree" + t);
+      ok &= isForest(g, Boruvka.minSpanTree(g), expected, "Boruvka tree" + t);
+      ok &= isForest(g, FilterKruskal.minSpanTree(g), expected, "FilterKruskal tree" + t);
+      ok &= isForest(g, MinSpanTree.minSpanTree(g), expected, "MinSpanTree tree" + t);
+      ok &= isForest(g, Kruskal.minSpanTree(g.snapshot()), expected, "snapshot tree" + t);
+      ok &= sameResult(g, Kruskal.minSpanForest(g), expected, "Kruskal forest" + t);
+      ok &= sameResult(g, Prim.minSpanForest(c), expected, "Prim forest" + t);
+      ok &= sameResult(g, Boruvka.minSpanForest(c, pool), expected, "Boruvka forest" + t);
+      ok &= sameResult(g, FilterKruskal.minSpanForest(c, pool), expected,
+                       "FilterKruskal forest" + t);
+      ok &= sameResult(g, MinSpanTree.minSpanForest(c, MinSpanTree.PRIM), expected,
+                       "MinSpanTree forest" + t);
+      ok &= sameResult(g, Kruskal.lazyMinSpanForest(c), expected, "lazy forest" + t);
+
+      // a cursor stopped halfway must still finish with the whole forest;
+      MstCursor cursor = new MstCursor(g);
+      long weight = 0;
+      for (int i = 0; i < expected[1] / 2 && cursor.next(); i++) {
+        weight += cursor.weight();
+        if (!g.isEdge(cursor.vertexU(), cursor.vertexV())) {
+          System.out.println("MstCursor " + trial + " returned an edge that is not in the graph.");
+          ok = false;
+        }
+      }
+      if (cursor.totalWeight() != weight) {
+        System.out.println("MstCursor " + trial + " has the wrong running total.");
+        ok = false;
+      }
+      ok &= sameResult(g, cursor.finish(), expected, "MstCursor forest" + t);
+    }
+    pool.shutdown();
+    return ok ? 1 : 0;
+  }
+
+  // externalTest returns 1 if ExternalKruskal agrees with the reference, in memory and on disk;
+  private static int externalTest() throws IOException {
+    System.out.println("Running ExternalKruskal test.");
+    boolean ok = true;
+    Random random = new Random(21);
+    for (int trial = 0; trial < 6; trial++) {
+      // the smallest budget holds 2K edges a run, so the big trials write dozens of runs and merge twice;
+      int n = 1 + random.nextInt(3000);
+      int m = (trial % 3 == 0) ? 150000 : random.nextInt(20000);
+      Object[] vertArray = names(n);
+      WUGraph g = new WUGraph();
+      for (int i = 0; i < n; i++) {
+        g.addVertex(vertArray[i]);
+      }
+      ExternalKruskal small = new ExternalKruskal(n, ExternalKruskal.MIN_BUDGET);
+      ExternalKruskal large = new ExternalKruskal(n, 1L << 26);
+      int maxWeight = (trial % 2 == 0) ? 10 : MAXINT;
+      for (int i = 0; i < m; i++) {
+        int u = random.nextInt(n);
+        int v = random.nextInt(n);
+        // ExternalKruskal keeps parallel edges, where the graph would re-weight one;
+        if (!g.isEdge(vertArray[u], vertArray[v])) {
+          int w = random.nextInt(maxWeight) - maxWeight / 4;
+          g.addEdge(copy(vertArray[u]), copy(vertArray[v]), w);
+          small.addEdge(u, v, w);
+          large.addEdge(u, v, w);
+        }
+      }
+      long[] expected = reference(g);
+      EdgeList[] forests = {small.minSpanForest(), large.minSpanForest()};
+      for (int f = 0; f < forests.length; f++) {
+        EdgeList forest = forests[f];
+        String name = ((f == 0) ? "external" : "in-memory") + " forest " + trial;
+        long weight = 0;
+        for (int i = 0; i < forest.size; i++) {
+          if (forest.u[i] > forest.v[i]) {
+            System.out.println(name + " has an edge with u > v.");
+            ok = false;
+            break;
+          }
+          if (g.weight(vertArray[forest.u[i]], vertArray[forest.v[i]]) != forest.w[i]) {
+            System.out.println(name + " has an edge that is not in the graph.");
+            ok = false;
+            break;
+          }
+          weight += forest.w[i];
+        }
+        if (weight != expected[0] || forest.size != expected[1]) {
+          System.out.println(name + " has " + forest.size + " edges of weight " +
+                             weight + " but should have " + expected[1] +
+                             " edges of weight " + expected[0] + ".");
+          ok = false;
+        }
+      }
+    }
+    return ok ? 1 : 0;
+  }
+
+  // heaviest returns the heaviest edge on the path from source to each vertex of forest t, by depth-first search;
+  static OpenHashTable heaviest(WUGraph t, Object source) {
+    OpenHashTable best = new OpenHashTable();
+    best.insert(source, Integer.valueOf(Integer.MIN_VALUE));
+    Object[] stack = new Object[t.vertexCount()];
+    stack[0] = source;
+    int top = 1;
+    while (top > 0) {
+      top--;
+      Object x = stack[top];
+      int bx = ((Integer) best.get(x)).intValue();
+      Neighbors neigh = t.getNeighbors(x);
+      if (neigh != null) {
+        for (int j = 0; j < neigh.neighborList.length; j++) {
+          Object y = neigh.neighborList[j];
+          if (best.get(y) == null) {
+            best.insert(y, Integer.valueOf(Math.max(bx, neigh.weightList[j])));
+            stack[top] = y;
+            top++;
+          }
+        }
+      }
+    }
+    return best;
+  }
+
+  // bottleneckTest returns 1 if BottleneckIndex finds the heaviest forest edge between every pair of vertices;
+  private static int bottleneckTest() {
+    System.out.println("Running BottleneckIndex test.");
+    boolean ok = true;
+    Random random = new Random(25);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    for (int trial = 0; trial < 20; trial++) {
+      Object[] vertArray = names(1 + random.nextInt(150));
+      int n = vertArray.length;
+      WUGraph g = randomGraph(random, vertArray, random.nextInt(3 * n),
+                              (trial % 2 == 0) ? 10 : MAXINT);
+      CsrGraph c = g.freeze();
+      BottleneckIndex byObject = new BottleneckIndex(g);
+      BottleneckIndex byId = new BottleneckIndex(c);
+      // every minimum spanning forest has the same heaviest edge between two vertices;
+      WUGraph t = Kruskal.minSpanTree(g);
+      int[] us = new int[n * n];
+      int[] vs = new int[n * n];
+      int[] expected = new int[n * n];
+      int q = 0;
+      for (int i = 0; i < n; i++) {
+        OpenHashTable best = heaviest(t, vertArray[i]);
+        for (int j = 0; j < n; j++) {
+          Integer b = (Integer) best.get(vertArray[j]);
+          us[q] = c.indexOf(vertArray[i]);
+          vs[q] = c.indexOf(vertArray[j]);
+          expected[q] = (b == null) ? Integer.MAX_VALUE : b.intValue();
+          if (byObject.maxEdgeOnPath(copy(vertArray[i]), copy(vertArray[j])) != expected[q] ||
+              byId.maxEdgeOnPath(us[q], vs[q]) != expected[q]) {
+            System.out.println("BottleneckIndex " + trial + " is wrong between " +
+                               vertArray[i] + " and " + vertArray[j] + ".");
+            ok = false;
+          }
+          q++;
+        }
+      }
+      if (!Arrays.equals(byId.maxEdgeOnPaths(us, vs), expected) ||
+          !Arrays.equals(byId.maxEdgeOnPaths(us, vs, pool), expected)) {
+        System.out.println("BottleneckIndex " + trial + " answers a batch wrongly.");
+        ok = false;
+      }
+      if (byObject.maxEdgeOnPath("no such vertex", vertArray[0]) != Integer.MAX_VALUE) {
+        System.out.println("BottleneckIndex " + trial + " answers for a vertex not in the graph.");
+        ok = false;
+      }
+    }
+    pool.shutdown();
+    return ok ? 1 : 0;
+  }
+
+  // clusters returns the labels of the vertex ids of c in k single-linkage clusters, found by brute force;
+  static int[] clusters(CsrGraph c, int k) {
+    int n = c.vertexCount();
+    long[] keys = new long[c.edgeCount()];
+    int[] us = new int[keys.length];
+    int[] vs = new int[keys.length];
+    int count = 0;
+    for (int i = 0; i < n; i++) {
+      for (int j = c.offsets()[i]; j < c.offsets()[i + 1]; j++) {
+        if (c.targets()[j] >= i) {
+          keys[count] = ((long) c.weights()[j] << 32) | count;
+          us[count] = i;
+          vs[count] = c.targets()[j];
+          count++;
+        }
+      }
+    }
+    Arrays.sort(keys, 0, count);
+    // the whole minimum spanning forest, lightest edge first;
+    DisjointSets sets = new DisjointSets(n);
+    int[] forest = new int[n];
+    int edges = 0;
+    for (int i = 0; i < count; i++) {
+      int e = (int) keys[i];
+      int root1 = sets.find(us[e]);
+      int root2 = sets.find(vs[e]);
+      if (root1 != root2) {
+        sets.union(root1, root2);
+        forest[edges] = e;
+        edges++;
+      }
+    }
+    // a forest with c components has n - c edges; dropping the heaviest k - c leaves k clusters;
+    int dropped = Math.max(0, Math.min(edges, k - (n - edges)));
+    sets = new DisjointSets(n);
+    for (int i = 0; i < edges - dropped; i++) {
+      sets.union(sets.find(us[forest[i]]), sets.find(vs[forest[i]]));
+    }
+    int[] number = new int[n];
+    Arrays.fill(number, -1);
+    int[] label = new int[n];
+    int next = 0;
+    for (int i = 0; i < n; i++) {
+      int root = sets.find(i);
+      if (number[root] < 0) {
+        number[root] = next;
+        next++;
+      }
+      label[i] = number[root];
+    }
+    return label;
+  }
+
+  // clusteringTest returns 1 if single-linkage clustering agrees with the reference forest cut into clusters;
+  private static int clusteringTest() {
+    System.out.println("Running clustering test.");
+    boolean ok = true;
+    Random random = new Random(24);
+    for (int trial = 0; trial < 30; trial++) {
+      Object[] vertArray = names(1 + random.nextInt(200));
+      int n = vertArray.length;
+      // sparse graphs have many components, often more than k;
+      int m = (trial % 3 == 0) ? random.nextInt(n) : random.nextInt(4 * n);
+      WUGraph g = new WUGraph();
+      for (int i = 0; i < n; i++) {
+        g.addVertex(vertArray[i]);
+      }
+      // distinct weights make the clusters unique, however ties are broken;
+      for (int i = 0; i < m; i++) {
+        g.addEdge(copy(vertArray[random.nextInt(n)]), copy(vertArray[random.nextInt(n)]),
+                  random.nextInt(MAXINT) * m + i);
+      }
+      CsrGraph c = g.freeze();
+      int[] ks = {1, 2, 3, 1 + random.nextInt(n), n, n + 3};
+      for (int i = 0; i < ks.length; i++) {
+        int[] expected = clusters(c, ks[i]);
+        if (!Arrays.equals(Clustering.singleLinkage(c, ks[i]), expected) ||
+            !Arrays.equals(Clustering.singleLinkage(g, ks[i]), expected)) {
+          System.out.println("Clustering " + trial + " into " + ks[i] +
+                             " clusters labels the vertices wrongly.");
+          ok = false;
+        }
+      }
+    }
+    try {
+      Clustering.singleLinkage(new WUGraph(), 0);
+      System.out.println("Clustering into 0 clusters does not throw.");
+      ok = false;
+    } catch (IllegalArgumentException e) {
+      // as it should;
+    }
+    return ok ? 1 : 0;
+  }
+
+  public static void main(String[] args) throws IOException {
+    int score = copiedVertexTest() + engineTest() + externalTest() + bottleneckTest() +
+                clusteringTest();
+    int total = 5;
+    System.out.println("Your MST test score is " + score + " out of " +
+                       total + ".");
+  }
+}
@@ -0,0 +1,118 @@
+/* NeighborTest.java */
+
+/**
+ * The NeighborTest class checks the two ways of walking a WUGraph vertex's
+ * edges without allocating, forEachNeighbor() and NeighborCursor, against
+ * getNeighbors().  All three must give the same (neighbor, weight) pairs in
+ * the same order, for every vertex, including ones with self-edges and ones
+ * with no edges, and none at all for objects that are not vertices.
+ */
+
+import graph.*;
+import java.util.Random;
+
+public class NeighborTest {
+
+  // a Recorder keeps what forEachNeighbor() hands it;
+  private static class Recorder implements NeighborConsumer {
+    Object[] neighbors = new Object[16];
+    int[] weights = new int[16];
+    int count;
+
+    public void accept(Object neighbor, int weight) {
+      if (count == neighbors.length) {
+        Object[] moreNeighbors = new Object[2 * count];
+        int[] moreWeights = new int[2 * count];
+        System.arraycopy(neighbors, 0, moreNeighbors, 0, count);
+        System.arraycopy(weights, 0, moreWeights, 0, count);
+        neighbors = moreNeighbors;
+        weights = moreWeights;
+      }
+      neighbors[count] = neighbor;
+      weights[count] = weight;
+      count++;
+    }
+  }
+
+  // same returns true if the first "count" pairs match the Neighbors (null meaning none);
+  private static boolean same(Neighbors neigh, Object[] neighbors, int[] weights, int count) {
+    if (neigh == null) {
+      return count == 0;
+    }
+    if (neigh.neighborList.length != count) {
+      return false;
+    }
+    for (int i = 0; i < count; i++) {
+      if (!neigh.neighborList[i].equals(neighbors[i]) || neigh.weightList[i] != weights[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // traversalTest returns 1 if forEachNeighbor() and NeighborCursor list what getNeighbors() does;
+  private static int traversalTest() {
+    System.out.println("Running neighbor traversal test.");
+    Random random = new Random(9);
+    NeighborCursor cursor = null;
+    Recorder recorder = new Recorder();
+    Object[] neighbors = new Object[16];
+    int[] weights = new int[16];
+    for (int trial = 0; trial < 20; trial++) {
+      int n = 1 + random.nextInt(100);
+      WUGraph g = new WUGraph();
+      for (int i = 0; i < n; i++) {
+        g.addVertex(Integer.valueOf(1000 + i));
+      }
+      // a few self-edges among the edges, some vertices removed, and some left with none;
+      for (int i = random.nextInt(4 * n); i > 0; i--) {
+        int u = 1000 + random.nextInt(n);
+        int v = (random.nextInt(10) == 0) ? u : 1000 + random.nextInt(n / 2 + 1);
+        g.addEdge(Integer.valueOf(u), Integer.valueOf(v), random.nextInt(200) - 100);
+      }
+      for (int i = random.nextInt(n / 5 + 1); i > 0; i--) {
+        g.removeVertex(Integer.valueOf(1000 + random.nextInt(n)));
+      }
+      // ask about every id, and some beyond, through copies of the vertex objects;
+      for (int i = 0; i < n + 5; i++) {
+        Integer vertex = Integer.valueOf(1000 + i);
+        Neighbors neigh = g.getNeighbors(vertex);
+        recorder.count = 0;
+        g.forEachNeighbor(vertex, recorder);
+        if (!same(neigh, recorder.neighbors, recorder.weights, recorder.count) ||
+            recorder.count != g.degree(vertex)) {
+          System.out.println("forEachNeighbor() lists the wrong edges of " + vertex +
+                             " in trial " + trial + ".");
+          return 0;
+        }
+        // one cursor walks vertex after vertex, sometimes moved on before it is used up;
+        if (neighbors.length <= g.degree(vertex)) {
+          neighbors = new Object[2 * g.degree(vertex)];
+          weights = new int[neighbors.length];
+        }
+        cursor = g.neighbors(vertex, (random.nextInt(5) == 0) ? null : cursor);
+        int count = 0;
+        while (count < neighbors.length && cursor.next()) {
+          neighbors[count] = cursor.neighbor();
+          weights[count] = cursor.weight();
+          count++;
+        }
+        if (cursor.next() || !same(neigh, neighbors, weights, count)) {
+          System.out.println("NeighborCursor lists the wrong edges of " + vertex +
+                             " in trial " + trial + ".");
+          return 0;
+        }
+        if (random.nextBoolean()) {
+          cursor = g.neighbors(Integer.valueOf(1000 + random.nextInt(n)), cursor);
+          cursor.next();
+        }
+      }
+    }
+    return 1;
+  }
+
+  public static void main(String[] args) {
+    int score = traversalTest();
+    System.out.println("Your neighbor test score is " + score + " out of 1.");
+  }
+}
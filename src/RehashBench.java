@@ -0,0 +1,61 @@
+/* RehashBench.java */
+
+/**
+ * The RehashBench class compares the per-insert latency of HashTableChained
+ * with all-at-once and with incremental resizing.  Each insert is timed
+ * together with the resize() call that precedes it (as WUGraph does), and the
+ * latency percentiles are printed.  The median is about the same in both
+ * modes; the tail is where all-at-once resizing shows its stalls.
+ *
+ * Usage:  java -Xms4g -Xmx4g -Xmn2g RehashBench [n]   (n defaults to 5,000,000)
+ * A large, fixed heap keeps garbage collection pauses from swamping the
+ * resize stalls being measured.
+ */
+
+import dict.*;
+import java.util.Arrays;
+
+public class RehashBench {
+
+  private static void run(String name, boolean incremental, Integer[] keys) {
+    HashTableChained table = new HashTableChained();
+    table.setIncrementalResize(incremental);
+    long[] latency = new long[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      long start = System.nanoTime();
+      table.resize();
+      table.insert(keys[i], keys[i]);
+      latency[i] = System.nanoTime() - start;
+    }
+    for (int i = 0; i < keys.length; i++) {
+      if (table.find(keys[i]) == null) {
+        throw new RuntimeException("lost key " + keys[i]);
+      }
+    }
+    Arrays.sort(latency);
+    System.out.println(name + ":  p50 " + percentile(latency, 0.50) +
+                       " ns  p99 " + percentile(latency, 0.99) +
+                       " ns  p99.99 " + percentile(latency, 0.9999) +
+                       " ns  max " + latency[latency.length - 1] / 1000 + " us");
+  }
+
+  private static long percentile(long[] sorted, double p) {
+    return sorted[(int) (p * (sorted.length - 1))];
+  }
+
+  public static void main(String[] args) {
+    int n = 5000000;
+    if (args.length > 0) {
+      n = Integer.parseInt(args[0]);
+    }
+    Integer[] keys = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      keys[i] = Integer.valueOf(i);
+    }
+    // run each mode twice and report the second run, after the JIT has warmed up;
+    for (int round = 0; round < 2; round++) {
+      run("all-at-once", false, keys);
+      run("incremental", true, keys);
+    }
+  }
+}
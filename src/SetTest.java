@@ -0,0 +1,214 @@
+/* SetTest.java */
+
+/**
+ * The SetTest class checks the disjoint sets classes that stand in for
+ * DisjointSets against it.  Both sides get the same unions, and must agree
+ * on which unions join two sets, on the number of sets, and on the size of
+ * every set.  ConcurrentDisjointSets is checked under contention:  several
+ * threads unite pairs at once, which commute, so the partition they leave
+ * must be the one the same unions, run one at a time, leave in DisjointSets.
+ */
+
+import set.*;
+import java.util.Arrays;
+import java.util.Random;
+
+public class SetTest {
+
+  private static final int THREADS = 4;
+
+  private static volatile String failure;
+
+  // join starts and waits for every thread;
+  private static void join(Thread[] threads) throws InterruptedException {
+    for (int t = 0; t < threads.length; t++) {
+      threads[t].start();
+    }
+    for (int t = 0; t < threads.length; t++) {
+      threads[t].join();
+    }
+  }
+
+  // sizes returns the size of the set of each element of a DisjointSets of n elements;
+  private static int[] sizes(DisjointSets sets, int n) {
+    int[] count = new int[n];
+    for (int x = 0; x < n; x++) {
+      count[sets.find(x)]++;
+    }
+    int[] size = new int[n];
+    for (int x = 0; x < n; x++) {
+      size[x] = count[sets.find(x)];
+    }
+    return size;
+  }
+
+  // longDisjointSetsTest returns 1 if a LongDisjointSets, grown a piece at a time past
+  // several segments, agrees with a DisjointSets of all its elements;
+  private static int longDisjointSetsTest() {
+    System.out.println("Running LongDisjointSets test.");
+    Random random = new Random(17);
+    // more than four segments of 2^20, so the array of segments doubles too;
+    final int max = (4 << 20) + 300000;
+    DisjointSets reference = new DisjointSets(max);
+    LongDisjointSets sets = new LongDisjointSets(5);
+    int n = 5;
+    int components = 5;
+    int step = 0;
+    while (n < max) {
+      // single elements, small runs, and runs that fill or cross a segment boundary;
+      int kind = random.nextInt(4);
+      int count = (kind == 0) ? 1 : (kind == 1) ? random.nextInt(40) :
+                  (kind == 2) ? random.nextInt(5000) : random.nextInt(1 << 20);
+      count = Math.min(count, max - n);
+      long first = (count == 1) ? sets.add() : sets.addElements(count);
+      if (first != n || sets.elementCount() != n + count) {
+        System.out.println("Adding " + count + " elements to " + n +
+                           " numbered them from " + first + ".");
+        return 0;
+      }
+      n += count;
+      components += count;
+      // unite random pairs, some in the new elements, some across the whole range;
+      for (int i = random.nextInt(2 * count + 10); i > 0; i--) {
+        int x = random.nextInt(n);
+        int y = (random.nextBoolean()) ? random.nextInt(n) : n - 1 - random.nextInt(count + 1);
+        int root1 = reference.find(x);
+        int root2 = reference.find(y);
+        boolean different = (root1 != root2);
+        if (different) {
+          reference.union(root1, root2);
+          components--;
+        }
+        if (sets.union(x, y) != different) {
+          System.out.println("union(" + x + ", " + y + ") returned " + !different + ".");
+          return 0;
+        }
+      }
+      if (sets.componentCount() != components) {
+        System.out.println("componentCount() is " + sets.componentCount() +
+                           " but should be " + components + ".");
+        return 0;
+      }
+      step++;
+      if (step % 8 == 0 || n == max) {
+        int[] size = sizes(reference, n);
+        for (int x = 0; x < n; x++) {
+          if (sets.sizeOf(x) != size[x]) {
+            System.out.println("sizeOf(" + x + ") is " + sets.sizeOf(x) +
+                               " but should be " + size[x] + ".");
+            return 0;
+          }
+        }
+      }
+    }
+    // an empty one grown one element at a time past a segment, each joined to the one three back;
+    sets = new LongDisjointSets();
+    n = (1 << 20) + 3;
+    for (int x = 0; x < n; x++) {
+      sets.add();
+      if (x >= 3) {
+        sets.union(x, x - 3);
+      }
+    }
+    if (sets.componentCount() != 3 || sets.sizeOf(0) + sets.sizeOf(1) + sets.sizeOf(2) != n ||
+        sets.sizeOf(n - 1) != sets.sizeOf((n - 1) % 3)) {
+      System.out.println("A LongDisjointSets grown one element at a time has " +
+                         sets.componentCount() + " sets.");
+      return 0;
+    }
+    return 1;
+  }
+
+  // concurrentDisjointSetsTest returns 1 if threads uniting random pairs leave the sequential partition;
+  private static int concurrentDisjointSetsTest() throws InterruptedException {
+    System.out.println("Running ConcurrentDisjointSets test.");
+    Random random = new Random(3);
+    for (int round = 0; round < 5; round++) {
+      final int n = 1 << 17;
+      final int[] xs = new int[n];
+      final int[] ys = new int[n];
+      // few sets in early rounds, many in later ones;
+      final int m = n / (round + 1);
+      for (int i = 0; i < m; i++) {
+        xs[i] = random.nextInt(n);
+        ys[i] = random.nextInt(n);
+      }
+      final ConcurrentDisjointSets sets = new ConcurrentDisjointSets(n);
+      final int[] unions = new int[THREADS];
+      Thread[] threads = new Thread[THREADS + 1];
+      for (int t = 0; t < THREADS; t++) {
+        final int id = t;
+        threads[t] = new Thread() {
+          public void run() {
+            for (int i = id; i < m; i += THREADS) {
+              if (sets.union(xs[i], ys[i])) {
+                unions[id]++;
+              }
+            }
+          }
+        };
+      }
+      // a reader asks about pairs already united; the answer can never be false;
+      threads[THREADS] = new Thread() {
+        public void run() {
+          Random r = new Random(5);
+          for (int k = 0; k < m / 4; k++) {
+            int i = r.nextInt(m);
+            if (!sets.sameSet(xs[i], xs[i])) {
+              failure = "sameSet(x, x) is false.";
+            }
+            sets.find(ys[i]);
+          }
+        }
+      };
+      join(threads);
+
+      DisjointSets reference = new DisjointSets(n);
+      int expected = 0;
+      for (int i = 0; i < m; i++) {
+        int root1 = reference.find(xs[i]);
+        int root2 = reference.find(ys[i]);
+        if (root1 != root2) {
+          reference.union(root1, root2);
+          expected++;
+        }
+      }
+      int total = 0;
+      for (int t = 0; t < THREADS; t++) {
+        total += unions[t];
+      }
+      if (total != expected) {
+        System.out.println("union() returned true " + total +
+                           " times but should have " + expected + " times.");
+        return 0;
+      }
+      // the two partitions agree if each root of one maps to exactly one root of the other;
+      int[] map = new int[n];
+      int[] back = new int[n];
+      Arrays.fill(map, -1);
+      Arrays.fill(back, -1);
+      for (int x = 0; x < n; x++) {
+        int a = reference.find(x);
+        int b = sets.find(x);
+        if (map[a] == -1 && back[b] == -1) {
+          map[a] = b;
+          back[b] = a;
+        } else if (map[a] != b || back[b] != a) {
+          System.out.println("ConcurrentDisjointSets puts " + x +
+                             " in the wrong set.");
+          return 0;
+        }
+      }
+      if (failure != null) {
+        System.out.println(failure);
+        return 0;
+      }
+    }
+    return 1;
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    int score = longDisjointSetsTest() + concurrentDisjointSetsTest();
+    System.out.println("Your set test score is " + score + " out of 2.");
+  }
+}
@@ -0,0 +1,61 @@
+/* VertexChurnBench.java */
+
+/**
+ * The VertexChurnBench class measures how the cost of WUGraph.removeVertex()
+ * depends on the size of the graph.  For each graph size it builds a graph in
+ * which every vertex has a few edges, then removes a batch of random vertices
+ * and adds them back with fresh edges, reporting the time per removal.  Since
+ * removeVertex() runs in time proportional to the vertex's degree, the time
+ * per removal should not grow with the number of vertices.
+ *
+ * Usage:  java -Xmx4g VertexChurnBench [maxVertices]   (default 1,000,000)
+ */
+
+import graph.*;
+import java.util.Random;
+
+public class VertexChurnBench {
+
+  private static final int DEGREE = 4;
+  private static final int CHURN = 20000;
+
+  public static void main(String[] args) {
+    int maxVertices = 1000000;
+    if (args.length > 0) {
+      maxVertices = Integer.parseInt(args[0]);
+    }
+    for (int n = 10000; n <= maxVertices; n *= 10) {
+      Random random = new Random(0);
+      Integer[] vertArray = new Integer[n];
+      for (int i = 0; i < n; i++) {
+        vertArray[i] = Integer.valueOf(i);
+      }
+      WUGraph g = new WUGraph(n, n * DEGREE / 2);
+      g.addVertices(vertArray);
+      for (int i = 0; i < n * DEGREE / 2; i++) {
+        g.addEdge(vertArray[random.nextInt(n)], vertArray[random.nextInt(n)], i);
+      }
+
+      long removeTime = 0;
+      for (int round = 0; round < 2; round++) {      // the first round warms up the JIT
+        int[] victims = new int[CHURN];
+        for (int i = 0; i < CHURN; i++) {
+          victims[i] = random.nextInt(n);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < CHURN; i++) {
+          g.removeVertex(vertArray[victims[i]]);
+        }
+        removeTime = System.nanoTime() - start;
+        for (int i = 0; i < CHURN; i++) {
+          g.addVertex(vertArray[victims[i]]);
+          for (int j = 0; j < DEGREE / 2; j++) {
+            g.addEdge(vertArray[victims[i]], vertArray[random.nextInt(n)], i);
+          }
+        }
+      }
+      System.out.println("vertices " + n + "  ns/removeVertex " +
+                         (removeTime / CHURN));
+    }
+  }
+}
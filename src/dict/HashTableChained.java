@@ -22,12 +22,23 @@ public class HashTableChained implements Dictionary {
    **/
   public DList[] table;
   public int numBuckets;
+  int count;                 // number of entries, kept current by insert/remove
+  int seed;                  // mixed into every hash code; 0 unless given
+
+  // Incremental resizing.  While oldTable != null, a resize is in progress:
+  // buckets oldTable[0...migrated-1] have been emptied into table, and the
+  // rest still hold their entries.  Every insert/find/remove moves a few more.
+  static final int MIGRATE_STEP = 4;
+  boolean incremental;
+  DList[] oldTable;
+  int oldBuckets;
+  int migrated;
 
 
 
   public static boolean isPrime(int n) {
     int divisor = 2;
-    while (divisor < n) {
+    while (divisor * divisor <= n) {
       if (n%divisor==0) {
         return false;
       }
@@ -43,6 +54,17 @@ public class HashTableChained implements Dictionary {
    **/
 
   public HashTableChained(int sizeEstimate) {
+    this(sizeEstimate, 0);
+  }
+
+  /**
+   *  Construct a new empty hash table intended to hold roughly sizeEstimate
+   *  entries, whose bucket choice is perturbed by seed.  Tables with
+   *  different seeds spread the same keys differently, so a set of keys
+   *  chosen to collide in one table will not collide in another.
+   **/
+
+  public HashTableChained(int sizeEstimate, int seed) {
     // Your solution here.
     int i, tableSize=0;
     for (i=sizeEstimate; i<=2*sizeEstimate; i++) {
@@ -56,6 +78,8 @@ public class HashTableChained implements Dictionary {
       table[i] = new DList();
     }
     numBuckets = tableSize;
+    count = 0;
+    this.seed = seed;
   }
 
   /** 
@@ -71,35 +95,123 @@ public class HashTableChained implements Dictionary {
       table[i] = new DList();
     }
     numBuckets = 101;
+    count = 0;
   }
   
   // resize if the load factor is getting over 1, every time resize() will double the num of buckets;
   public void resize(){
-	    if (this.size()/numBuckets>0.75){
-	      DList[] temp = this.table;
-	      this.table = new DList[numBuckets*2];
-	      numBuckets = numBuckets * 2;
-	      for (int i=0;i<numBuckets;i++){
-	        table[i] = new DList();
-	      }
-	      try {
-	        for (int i=0;i<temp.length;i++){
-	          if (temp[i].length()>0){
-	            DListNode cur = (DListNode)(temp[i].front());
-	            while (cur.item()!=null) {
-	              this.insert(((Entry)(cur.item())).key, ((Entry)(cur.item())).value);
-	              if (cur==(DListNode)(temp[i].back())){
-	                break;
-	              }
-	              cur=(DListNode)(cur.next());
-	            }
-	          }
-	        }
-	      } catch(InvalidNodeException e){
-	        e.printStackTrace();
-	      }
-	    }
-	  }
+    if (count/numBuckets>0.75){
+      if (!incremental){
+        rehash(numBuckets*2);
+      } else if (oldTable==null){
+        // start moving entries over a bucket at a time; new buckets are created on first use;
+        oldTable = table;
+        oldBuckets = numBuckets;
+        migrated = 0;
+        table = new DList[numBuckets*2];
+        numBuckets = numBuckets*2;
+      }
+    }
+  }
+
+  /**
+   *  setIncrementalResize() chooses how resize() grows the table.  Normally
+   *  it moves every entry into the bigger table at once, so the insert that
+   *  triggers it takes time proportional to the table size.  In incremental
+   *  mode the old and new tables coexist, and each later insert(), find(),
+   *  and remove() moves MIGRATE_STEP old buckets over, so no single operation
+   *  pays for more than a few buckets.  Turning the mode off finishes any
+   *  resize in progress.
+   *
+   *  @param on true for incremental resizing, false for all-at-once.
+   **/
+  public void setIncrementalResize(boolean on) {
+    if (!on) {
+      migrate(oldBuckets);
+    }
+    incremental = on;
+  }
+
+  // migrate moves up to "steps" buckets of an in-progress resize into table;
+  private void migrate(int steps){
+    if (oldTable==null){
+      return;
+    }
+    try {
+      for (int i=0;i<steps && migrated<oldBuckets;i++){
+        DList old = oldTable[migrated];
+        if (old!=null){
+          while (old.length()>0){
+            DListNode cur = (DListNode)(old.front());
+            Entry entry = (Entry)(cur.item());
+            cur.remove();
+            bucket(compFunction(entry.key.hashCode())).insertBack(entry);
+          }
+          oldTable[migrated] = null;
+        }
+        migrated++;
+      }
+    } catch(InvalidNodeException e){
+      e.printStackTrace();
+    }
+    if (migrated==oldBuckets){
+      oldTable = null;
+      oldBuckets = 0;
+    }
+  }
+
+  // bucket returns table[position], creating it if an incremental resize left it unallocated;
+  private DList bucket(int position){
+    if (table[position]==null){
+      table[position] = new DList();
+    }
+    return table[position];
+  }
+
+  /**
+   *  ensureCapacity() grows the table, with a single rehash, so that it can
+   *  hold expectedEntries entries without resize() firing again.  Bulk loaders
+   *  call it once up front instead of calling resize() before every insert.
+   *
+   *  @param expectedEntries the number of entries the table should hold.
+   **/
+  public void ensureCapacity(int expectedEntries) {
+    if (expectedEntries > numBuckets) {
+      int tableSize = expectedEntries;
+      while (!isPrime(tableSize)) {
+        tableSize++;
+      }
+      rehash(tableSize);
+    }
+  }
+
+  // moves every entry into a fresh array of newBuckets buckets, reusing the Entry objects;
+  private void rehash(int newBuckets){
+    migrate(oldBuckets);
+    DList[] temp = this.table;
+    this.table = new DList[newBuckets];
+    numBuckets = newBuckets;
+    for (int i=0;i<numBuckets;i++){
+      table[i] = new DList();
+    }
+    try {
+      for (int i=0;i<temp.length;i++){
+        if (temp[i]!=null && temp[i].length()>0){
+          DListNode cur = (DListNode)(temp[i].front());
+          while (cur.item()!=null) {
+            Entry entry = (Entry)(cur.item());
+            table[compFunction(entry.key.hashCode())].insertBack(entry);
+            if (cur==(DListNode)(temp[i].back())){
+              break;
+            }
+            cur=(DListNode)(cur.next());
+          }
+        }
+      }
+    } catch(InvalidNodeException e){
+      e.printStackTrace();
+    }
+  }
 
   /**
    *  Converts a hash code in the range Integer.MIN_VALUE...Integer.MAX_VALUE
@@ -107,16 +219,19 @@ public class HashTableChained implements Dictionary {
    *
    *  This function should have package protection (so we can test it), and
    *  should be used by insert, find, and remove.
+   *
+   *  The code is first scrambled by Hashing.mix(), so every bucket of the
+   *  table is reachable however far resize() has grown it, and sequential
+   *  codes land in unrelated buckets.
    **/
 
   int compFunction(int code) {
-    // Replace the following line with your solution.
-    int position;
-    position = ((10*code+30)%14657)%(numBuckets);
-    if (position<0) {
-      position+=numBuckets;
-    }
-    return position;
+    return (Hashing.mix(code, seed) & 0x7fffffff) % numBuckets;
+  }
+
+  // the bucket of oldTable that code mapped to before the resize in progress;
+  private int oldCompFunction(int code) {
+    return (Hashing.mix(code, seed) & 0x7fffffff) % oldBuckets;
   }
 
   /** 
@@ -127,12 +242,7 @@ public class HashTableChained implements Dictionary {
    **/
 
   public int size() {
-    // Replace the following line with your solution.
-    int i, numEntries=0;
-    for (i=0;i<numBuckets;i++) {
-      numEntries+=table[i].length();
-    }
-    return numEntries;
+    return count;
   }
 
   /** 
@@ -142,14 +252,7 @@ public class HashTableChained implements Dictionary {
    **/
 
   public boolean isEmpty() {
-    // Replace the following line with your solution.
-    int i;
-    for (i=0;i<numBuckets;i++) {
-      if (table[i].length()>=1) {
-        return false;
-      }
-    }
-    return true;
+    return count == 0;
   }
 
   /**
@@ -171,8 +274,10 @@ public class HashTableChained implements Dictionary {
     Entry newEntry = new Entry();
     newEntry.key = key;
     newEntry.value = value;
+    migrate(MIGRATE_STEP);
     position=compFunction(key.hashCode());
-    table[position].insertBack(newEntry);
+    bucket(position).insertBack(newEntry);
+    count++;
     return newEntry;
   }
 
@@ -189,67 +294,75 @@ public class HashTableChained implements Dictionary {
    **/
 
   public Entry find(Object key) {
-	    // Replace the following line with your solution.
-	    int position;
-	    DListNode temp;
-	    position=compFunction(key.hashCode());
-	    if (table[position].length()>0){
-	      try{
-	        temp = (DListNode)(table[position].front());
-	        while (temp.item()!=null) {
-	          if (key.equals(((Entry)(temp.item())).key)) {
-	            return (Entry)(temp.item());
-	          }
-	          if (temp==(DListNode)(table[position].back())){
-	            break;
-	          }
-	          temp=(DListNode)(temp.next());
-	        }
-	      }
-	      catch(InvalidNodeException e){
-	        e.printStackTrace();
-	      }
-	    }
-	    return null;
-	  }
-	  /** 
-	   *  Remove an entry with the specified key.  If such an entry is found,
-	   *  remove it from the table and return it; otherwise return null.
-	   *  If several entries have the specified key, choose one arbitrarily, then
-	   *  remove and return it.
-	   *
-	   *  This method should run in O(1) time if the number of collisions is small.
-	   *
-	   *  @param key the search key.
-	   *  @return an entry containing the key and an associated value, or null if
-	   *          no entry contains the specified key.
-	   */
-	  public Entry remove(Object key) {
-	    // Replace the following line with your solution.
-	    int position;
-	    DListNode temp;
-	    position=compFunction(key.hashCode());
-	    if (table[position].length()>0){
-	      try{
-	        temp = (DListNode)(table[position].front());
-	        while (temp.item()!=null) {
-	          if (key.equals(((Entry)(temp.item())).key)) {
-	            Entry removed = (Entry)(temp.item());
-	            temp.remove();
-	            return removed;
-	          }
-	          if (temp==(DListNode)(table[position].back())){
-	            break;
-	          }
-	          temp=(DListNode)(temp.next());
-	        }
-	      }
-	      catch(InvalidNodeException e){
-	        e.printStackTrace();
-	      }
-	    }
-	    return null;
-	  }
+    DListNode node = search(key);
+    if (node==null) {
+      return null;
+    }
+    try {
+      return (Entry)(node.item());
+    } catch(InvalidNodeException e) {
+      e.printStackTrace();
+      return null;
+    }
+  }
+
+  /** 
+   *  Remove an entry with the specified key.  If such an entry is found,
+   *  remove it from the table and return it; otherwise return null.
+   *  If several entries have the specified key, choose one arbitrarily, then
+   *  remove and return it.
+   *
+   *  This method should run in O(1) time if the number of collisions is small.
+   *
+   *  @param key the search key.
+   *  @return an entry containing the key and an associated value, or null if
+   *          no entry contains the specified key.
+   */
+  public Entry remove(Object key) {
+    DListNode node = search(key);
+    if (node==null) {
+      return null;
+    }
+    try {
+      Entry removed = (Entry)(node.item());
+      node.remove();
+      count--;
+      return removed;
+    } catch(InvalidNodeException e) {
+      e.printStackTrace();
+      return null;
+    }
+  }
+
+  // search returns the node holding key, looking in the old table too while a resize is in progress;
+  private DListNode search(Object key) {
+    migrate(MIGRATE_STEP);
+    int code = key.hashCode();
+    DListNode found = search(table[compFunction(code)], key);
+    if (found==null && oldTable!=null) {
+      found = search(oldTable[oldCompFunction(code)], key);
+    }
+    return found;
+  }
+
+  // search returns the node of bucket holding key, or null;
+  private static DListNode search(DList bucket, Object key) {
+    if (bucket==null || bucket.length()==0) {
+      return null;
+    }
+    try {
+      DListNode temp = (DListNode)(bucket.front());
+      for (int i=0;i<bucket.length();i++) {
+        if (key.equals(((Entry)(temp.item())).key)) {
+          return temp;
+        }
+        temp=(DListNode)(temp.next());
+      }
+    } catch(InvalidNodeException e) {
+      e.printStackTrace();
+    }
+    return null;
+  }
 
   /**
    *  Remove all entries from the dictionary.
@@ -261,15 +374,22 @@ public class HashTableChained implements Dictionary {
     for (i=0;i<numBuckets;i++) {
       table[i] = new DList();
     }
-
+    count = 0;
+    oldTable = null;
+    oldBuckets = 0;
   }
   public int collisions(){
     int i, num=0;
     for (i=0;i<numBuckets;i++) {
-      if (table[i].length()>1) {
+      if (table[i]!=null && table[i].length()>1) {
         num+=table[i].length()-1;
       }
     }
+    for (i=0;i<oldBuckets;i++) {
+      if (oldTable[i]!=null && oldTable[i].length()>1) {
+        num+=oldTable[i].length()-1;
+      }
+    }
     return num;
   }
 
@@ -0,0 +1,34 @@
+/* Hashing.java */
+
+package dict;
+
+/**
+ *  Hashing holds the bit mixer shared by the hash tables in this package
+ *  (and by graph.VertexPair).
+ *  Keys' hashCode()s are often sequential or differ only in a few bits, so
+ *  every bit of the code is spread over the whole word before a table uses
+ *  it to pick a bucket.
+ **/
+
+public class Hashing {
+
+  /**
+   *  mix() scrambles code together with a per-table seed, using the
+   *  finalizer of MurmurHash3.  Every input bit affects every output bit, and
+   *  distinct (code, seed) pairs with the same seed never collide.
+   *
+   *  @param code a hash code.
+   *  @param seed the table's seed (0 if the table is unseeded).
+   *  @return the mixed code.
+   **/
+  public static int mix(int code, int seed) {
+    int h = code ^ seed;
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+}
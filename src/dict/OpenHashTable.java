@@ -0,0 +1,262 @@
+/* OpenHashTable.java */
+
+package dict;
+
+/**
+ *  OpenHashTable implements a Dictionary as an open-addressing hash table
+ *  with linear probing.  Keys, values, and the keys' hash codes are kept in
+ *  three parallel arrays, so a mapping costs no objects beyond the key and
+ *  value themselves, and the table keeps its own element count.  The table
+ *  grows by itself whenever it becomes more than 3/4 full; there is no need
+ *  to call a resize method before inserting.
+ *
+ *  Because entries are not stored as Entry objects, insert(), find(), and
+ *  remove() return a fresh Entry describing the mapping.  Changing the table
+ *  afterward does not change an Entry already handed out.  get() looks up a
+ *  value without creating an Entry at all.
+ **/
+
+public class OpenHashTable implements Dictionary {
+
+  private Object[] keys;     // null marks an empty slot
+  private Object[] values;
+  private int[] hashes;      // the hashCode() of each key, saved to skip most equals() calls
+  private int count;         // number of entries
+  private int shift;         // 32 - log2(keys.length)
+  private int seed;          // mixed into every hash code; 0 unless given
+
+  /**
+   *  Construct a new empty hash table able to hold sizeEstimate entries
+   *  without growing.
+   **/
+
+  public OpenHashTable(int sizeEstimate) {
+    this(sizeEstimate, 0);
+  }
+
+  /**
+   *  Construct a new empty hash table able to hold sizeEstimate entries
+   *  without growing, whose slot choice is perturbed by seed.
+   **/
+
+  public OpenHashTable(int sizeEstimate, int seed) {
+    this.seed = seed;
+    allocate(capacityFor(sizeEstimate));
+  }
+
+  /**
+   *  Construct a new empty hash table with a default size.
+   **/
+
+  public OpenHashTable() {
+    this(64);
+  }
+
+  /**
+   *  Returns the number of entries stored in the dictionary.
+   *  @return number of entries in the dictionary.
+   **/
+
+  public int size() {
+    return count;
+  }
+
+  /**
+   *  Tests if the dictionary is empty.
+   *
+   *  @return true if the dictionary has no entries; false otherwise.
+   **/
+
+  public boolean isEmpty() {
+    return count == 0;
+  }
+
+  /**
+   *  Insert a mapping from key to value, and return an Entry describing it.
+   *  Multiple entries with the same key (or even the same key and value) can
+   *  coexist in the dictionary.
+   *
+   *  Runs in O(1) expected (amortized) time.
+   *
+   *  @param key the key by which the entry can be retrieved.
+   *  @param value an arbitrary object.
+   *  @return an entry containing the key and value.
+   **/
+
+  public Entry insert(Object key, Object value) {
+    if (4 * (count + 1) > 3 * keys.length) {
+      rehash(2 * keys.length);
+    }
+    int code = key.hashCode();
+    int mask = keys.length - 1;
+    int slot = home(code);
+    while (keys[slot] != null) {
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    hashes[slot] = code;
+    count++;
+    return entry(key, value);
+  }
+
+  /**
+   *  Search for an entry with the specified key.  If such an entry is found,
+   *  return an Entry describing it; otherwise return null.
+   *
+   *  Runs in O(1) expected time.
+   *
+   *  @param key the search key.
+   *  @return an entry containing the key and an associated value, or null if
+   *          no entry contains the specified key.
+   **/
+
+  public Entry find(Object key) {
+    int slot = slotOf(key);
+    if (slot < 0) {
+      return null;
+    }
+    return entry(keys[slot], values[slot]);
+  }
+
+  /**
+   *  get() returns the value associated with key, or null if the key is not
+   *  in the table.  Unlike find(), it allocates nothing.
+   *
+   *  @param key the search key.
+   *  @return the associated value, or null.
+   **/
+
+  public Object get(Object key) {
+    int slot = slotOf(key);
+    if (slot < 0) {
+      return null;
+    }
+    return values[slot];
+  }
+
+  /**
+   *  Remove an entry with the specified key.  If such an entry is found,
+   *  remove it from the table and return it; otherwise return null.
+   *
+   *  Runs in O(1) expected time.  Later members of the probe run are shifted
+   *  back into the hole, so no tombstones are left behind.
+   *
+   *  @param key the search key.
+   *  @return an entry containing the key and an associated value, or null if
+   *          no entry contains the specified key.
+   */
+
+  public Entry remove(Object key) {
+    int slot = slotOf(key);
+    if (slot < 0) {
+      return null;
+    }
+    Entry removed = entry(keys[slot], values[slot]);
+    int mask = keys.length - 1;
+    int hole = slot;
+    int cur = (slot + 1) & mask;
+    while (keys[cur] != null) {
+      // move the key back unless its home lies cyclically in (hole, cur]
+      if (((cur - home(hashes[cur])) & mask) >= ((cur - hole) & mask)) {
+        keys[hole] = keys[cur];
+        values[hole] = values[cur];
+        hashes[hole] = hashes[cur];
+        hole = cur;
+      }
+      cur = (cur + 1) & mask;
+    }
+    keys[hole] = null;
+    values[hole] = null;
+    count--;
+    return removed;
+  }
+
+  /**
+   *  Remove all entries from the dictionary.
+   */
+
+  public void makeEmpty() {
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = null;
+      values[i] = null;
+    }
+    count = 0;
+  }
+
+  /**
+   *  ensureCapacity() grows the table, with a single rehash, so that it can
+   *  hold expectedEntries entries without growing again.
+   *
+   *  @param expectedEntries the number of entries the table should hold.
+   **/
+
+  public void ensureCapacity(int expectedEntries) {
+    int capacity = capacityFor(expectedEntries);
+    if (capacity > keys.length) {
+      rehash(capacity);
+    }
+  }
+
+  // slotOf returns the slot holding key, or -1 if there is none;
+  private int slotOf(Object key) {
+    int code = key.hashCode();
+    int mask = keys.length - 1;
+    int slot = home(code);
+    while (keys[slot] != null) {
+      if (hashes[slot] == code && key.equals(keys[slot])) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  // home maps a hash code to the slot where its probe run starts, taking the top bits of the mixed code;
+  private int home(int code) {
+    return Hashing.mix(code, seed) >>> shift;
+  }
+
+  // capacityFor returns the smallest power of two keeping n entries at most 3/4 full;
+  private static int capacityFor(int n) {
+    int capacity = 16;
+    while (3 * (long) capacity < 4 * (long) n) {
+      capacity *= 2;
+    }
+    return capacity;
+  }
+
+  private void allocate(int capacity) {
+    keys = new Object[capacity];
+    values = new Object[capacity];
+    hashes = new int[capacity];
+    shift = 32 - Integer.numberOfTrailingZeros(capacity);
+  }
+
+  private void rehash(int capacity) {
+    Object[] oldKeys = keys;
+    Object[] oldValues = values;
+    int[] oldHashes = hashes;
+    allocate(capacity);
+    int mask = capacity - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != null) {
+        int slot = home(oldHashes[i]);
+        while (keys[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+        hashes[slot] = oldHashes[i];
+      }
+    }
+  }
+
+  private static Entry entry(Object key, Object value) {
+    Entry e = new Entry();
+    e.key = key;
+    e.value = value;
+    return e;
+  }
+
+}
@@ -0,0 +1,410 @@
+/* ConcurrentWUGraph.java */
+
+package graph;
+import list.*;
+import dict.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ConcurrentWUGraph class represents a weighted, undirected graph that
+ * any number of threads may read and change at once.  Self-edges are
+ * permitted.  Its methods behave like those of WUGraph.
+ *
+ * Locking:  the vertex and edge tables are split into STRIPES hash tables,
+ * each guarded by its own monitor, so threads touching different stripes
+ * never wait for each other.  Every vertex is a DList of its incident edges
+ * and is its own lock.  A change to edge (u, v) locks u and v, always the
+ * older vertex first, so two writers can never wait on each other in a cycle,
+ * and then the edge's stripe.  Readers lock only the one vertex or stripe
+ * they read, so they wait only for writers touching that same vertex or
+ * stripe, and never for unrelated ones.
+ *
+ * A vertex being removed stays in the vertex table, marked removed, until
+ * its last edge is gone.  Meanwhile addVertex() of the same object does
+ * nothing and addEdge() on it is ignored, as if they had happened just before
+ * and just after the removal, and removeEdge() on it waits until the removal
+ * is done.
+ */
+
+public class ConcurrentWUGraph {
+	static final int STRIPES = 64;			//the number of stripes (a power of two);
+
+	// Vertex is a vertex's adjacency list together with its bookkeeping;
+	private static class Vertex extends DList {
+		Object name;						//the object the application uses for this vertex;
+		long order;							//creation order, which fixes the order locks are taken in;
+		boolean removed;					//set (under this lock) once removeVertex() has started;
+
+		Vertex(Object name, long order){
+			this.name = name;
+			this.order = order;
+		}
+	}
+
+	HashTableChained[] vertexStripes;		//maps each vertex object to its Vertex;
+	DList[] vertexLsts;						//the Vertex objects of each stripe, for getVertices();
+	HashTableChained[] edgeStripes;			//maps each VertexPair to its Edge;
+	AtomicLong nextOrder;
+	LongAdder numVertices;
+	LongAdder numEdges;
+
+  /**
+   * ConcurrentWUGraph() constructs a graph having no vertices or edges.
+   *
+   * Running time:  O(STRIPES).
+   */
+  public ConcurrentWUGraph(){
+	  vertexStripes = new HashTableChained[STRIPES];
+	  vertexLsts = new DList[STRIPES];
+	  edgeStripes = new HashTableChained[STRIPES];
+	  for (int i=0;i<STRIPES;i++){
+		  vertexStripes[i] = new HashTableChained();
+		  vertexLsts[i] = new DList();
+		  edgeStripes[i] = new HashTableChained();
+	  }
+	  nextOrder = new AtomicLong();
+	  numVertices = new LongAdder();
+	  numEdges = new LongAdder();
+  }
+
+  /**
+   * vertexCount() returns the number of vertices in the graph.  While other
+   * threads are changing the graph, the count may lag slightly behind.
+   *
+   * Running time:  O(number of threads).
+   */
+  public int vertexCount(){
+	  return numVertices.intValue();
+  }
+
+  /**
+   * edgeCount() returns the total number of edges in the graph.  While other
+   * threads are changing the graph, the count may lag slightly behind.
+   *
+   * Running time:  O(number of threads).
+   */
+  public int edgeCount(){
+	  return numEdges.intValue();
+  }
+
+  /**
+   * getVertices() returns an array containing all the objects that serve
+   * as vertices of the graph.  Each stripe is copied atomically, but other
+   * threads may change stripes not yet copied, so under concurrent change the
+   * result need not match any single moment.
+   *
+   * Running time:  O(|V| + STRIPES).
+   */
+  public Object[] getVertices(){
+	  Object[] temp = new Object[16];
+	  int k = 0;
+	  for (int s=0;s<STRIPES;s++){
+		  synchronized (vertexStripes[s]){
+			  DList lst = vertexLsts[s];
+			  if (k+lst.length()>temp.length){
+				  Object[] bigger = new Object[2*(k+lst.length())];
+				  System.arraycopy(temp, 0, bigger, 0, k);
+				  temp = bigger;
+			  }
+			  try {
+				  DListNode cur = (DListNode)(lst.front());
+				  for (int i=0;i<lst.length();i++){
+					  temp[k] = ((Vertex)(cur.item())).name;
+					  k++;
+					  cur = (DListNode)(cur.next());
+				  }
+			  }catch (InvalidNodeException e){
+				  e.printStackTrace();
+			  }
+		  }
+	  }
+	  Object[] result = new Object[k];
+	  System.arraycopy(temp, 0, result, 0, k);
+	  return result;
+  }
+
+  /**
+   * addVertex() adds a vertex (with no incident edges) to the graph.
+   * If this object is already a vertex of the graph, the graph is unchanged.
+   *
+   * Running time:  O(1).
+   */
+  public void addVertex(Object vertex){
+	  int s = stripe(vertex.hashCode());
+	  synchronized (vertexStripes[s]){
+		  if (vertexStripes[s].find(vertex)==null){
+			  Vertex newVertex = new Vertex(vertex, nextOrder.getAndIncrement());
+			  vertexLsts[s].insertBack(newVertex);
+			  vertexStripes[s].resize();
+			  vertexStripes[s].insert(vertex, newVertex);
+			  numVertices.increment();
+		  }
+	  }
+  }
+
+  /**
+   * removeVertex() removes a vertex from the graph.  All edges incident on the
+   * deleted vertex are removed as well.  If the parameter "vertex" does not
+   * represent a vertex of the graph, the graph is unchanged.
+   *
+   * Running time:  O(d), where d is the degree of "vertex".
+   */
+  public void removeVertex(Object vertex){
+	  Vertex inVertex = lookup(vertex);
+	  if (inVertex==null){
+		  return;
+	  }
+	  synchronized (inVertex){
+		  if (inVertex.removed){
+			  return;
+		  }
+		  inVertex.removed = true;
+	  }
+	  //no edge can be added to inVertex any more, so this loop ends;
+	  while (true){
+		  Edge edge;
+		  synchronized (inVertex){
+			  if (inVertex.length()==0){
+				  break;
+			  }
+			  try {
+				  edge = (Edge)(inVertex.front().item());
+			  }catch (InvalidNodeException e){
+				  e.printStackTrace();
+				  return;
+			  }
+		  }
+		  detach((Vertex)(edge.vertex1), (Vertex)(edge.vertex2), edge.exV1, edge.exV2, true);
+	  }
+	  int s = stripe(vertex.hashCode());
+	  synchronized (vertexStripes[s]){
+		  vertexStripes[s].remove(vertex);
+		  try {
+			  inVertex.myNode.remove();
+		  }catch (InvalidNodeException e){
+			  e.printStackTrace();
+		  }
+		  numVertices.decrement();
+	  }
+  }
+
+  /**
+   * isVertex() returns true if the parameter "vertex" represents a vertex of
+   * the graph.
+   *
+   * Running time:  O(1).
+   */
+  public boolean isVertex(Object vertex){
+	  return lookup(vertex)!=null;
+  }
+
+  /**
+   * degree() returns the degree of a vertex.  Self-edges add only one to the
+   * degree of a vertex.  If the parameter "vertex" doesn't represent a vertex
+   * of the graph, zero is returned.
+   *
+   * Running time:  O(1).
+   */
+  public int degree(Object vertex){
+	  Vertex inVertex = lookup(vertex);
+	  if (inVertex==null){
+		  return 0;
+	  }
+	  synchronized (inVertex){
+		  return inVertex.length();
+	  }
+  }
+
+  /**
+   * getNeighbors() returns a new Neighbors object referencing two new arrays,
+   * as WUGraph.getNeighbors() does.  The arrays describe the vertex's edges at
+   * a single moment.  If the vertex has degree zero, or if the parameter
+   * "vertex" does not represent a vertex of the graph, null is returned.
+   *
+   * Running time:  O(d), where d is the degree of "vertex".
+   */
+  public Neighbors getNeighbors(Object vertex){
+	  Vertex inVertex = lookup(vertex);
+	  if (inVertex==null){
+		  return null;
+	  }
+	  synchronized (inVertex){
+		  int d = inVertex.length();
+		  if (d==0){
+			  return null;
+		  }
+		  Neighbors myNeighbors = new Neighbors();
+		  myNeighbors.neighborList = new Object[d];
+		  myNeighbors.weightList = new int[d];
+		  try {
+			  DListNode cur = (DListNode)(inVertex.front());
+			  for (int i=0;i<d;i++){
+				  Edge edge = (Edge)(cur.item());
+				  myNeighbors.neighborList[i] = (edge.vertex1==inVertex) ? edge.exV2 : edge.exV1;
+				  myNeighbors.weightList[i] = edge.weight;
+				  cur = (DListNode)(cur.next());
+			  }
+		  }catch (InvalidNodeException e){
+			  e.printStackTrace();
+		  }
+		  return myNeighbors;
+	  }
+  }
+
+  /**
+   * addEdge() adds an edge (u, v) to the graph.  If either of the parameters
+   * u and v does not represent a vertex of the graph, the graph is unchanged.
+   * The edge is assigned a weight of "weight".  If the graph already contains
+   * edge (u, v), the weight is updated to reflect the new value.  Self-edges
+   * (where u == v) are allowed.
+   *
+   * Running time:  O(1).
+   */
+  public void addEdge(Object u, Object v, int weight){
+	  Vertex inU = lookup(u);
+	  Vertex inV = lookup(v);
+	  if (inU==null || inV==null){
+		  return;
+	  }
+	  Vertex first = (inU.order<=inV.order) ? inU : inV;
+	  Vertex second = (first==inU) ? inV : inU;
+	  synchronized (first){
+		  synchronized (second){
+			  if (inU.removed || inV.removed){
+				  return;
+			  }
+			  VertexPair exEdge = new VertexPair(u, v);
+			  HashTableChained edgeStripe = edgeStripes[stripe(exEdge.hashCode())];
+			  synchronized (edgeStripe){
+				  Entry found = edgeStripe.find(exEdge);
+				  if (found!=null){
+					  ((Edge)(found.value())).weight = weight;
+					  return;
+				  }
+				  Edge newEdge = new Edge(inU, inV, weight, u, v);
+				  inU.insertBack(newEdge);
+				  if (inV!=inU){
+					  inV.insertBack(newEdge);
+				  }
+				  edgeStripe.resize();
+				  edgeStripe.insert(exEdge, newEdge);
+				  numEdges.increment();
+			  }
+		  }
+	  }
+  }
+
+  /**
+   * removeEdge() removes an edge (u, v) from the graph.  If (u, v) is not an
+   * edge of the graph, the graph is unchanged.
+   *
+   * Running time:  O(1), plus any wait for a removal of u or v to finish.
+   */
+  public void removeEdge(Object u, Object v){
+	  while (true){
+		  Vertex inU = lookup(u);
+		  Vertex inV = lookup(v);
+		  if (inU==null || inV==null || detach(inU, inV, u, v, false)){
+			  return;
+		  }
+		  //an end was removed (and perhaps re-added) since the lookup; look again;
+		  Thread.yield();
+	  }
+  }
+
+  /**
+   * isEdge() returns true if (u, v) is an edge of the graph.
+   *
+   * Running time:  O(1).
+   */
+  public boolean isEdge(Object u, Object v){
+	  return findEdge(u, v)!=null;
+  }
+
+  /**
+   * weight() returns the weight of (u, v), or zero if (u, v) is not an edge.
+   *
+   * Running time:  O(1).
+   */
+  public int weight(Object u, Object v){
+	  VertexPair exEdge = new VertexPair(u, v);
+	  HashTableChained edgeStripe = edgeStripes[stripe(exEdge.hashCode())];
+	  synchronized (edgeStripe){
+		  Entry found = edgeStripe.find(exEdge);
+		  if (found==null){
+			  return 0;
+		  }
+		  return ((Edge)(found.value())).weight;
+	  }
+  }
+
+  // findEdge returns the Edge of (u, v), or null;
+  private Edge findEdge(Object u, Object v){
+	  VertexPair exEdge = new VertexPair(u, v);
+	  HashTableChained edgeStripe = edgeStripes[stripe(exEdge.hashCode())];
+	  synchronized (edgeStripe){
+		  Entry found = edgeStripe.find(exEdge);
+		  if (found==null){
+			  return null;
+		  }
+		  return (Edge)(found.value());
+	  }
+  }
+
+  // detach removes edge (u, v) if it is still there, and returns true, or returns false if the
+  // edge stored under (u, v) is not one between inU and inV, or (unless "removing", when a removal
+  // of inU or inV is detaching its own edges) if either is being removed;
+  private boolean detach(Vertex inU, Vertex inV, Object u, Object v, boolean removing){
+	  Vertex first = (inU.order<=inV.order) ? inU : inV;
+	  Vertex second = (first==inU) ? inV : inU;
+	  synchronized (first){
+		  synchronized (second){
+			  VertexPair exEdge = new VertexPair(u, v);
+			  HashTableChained edgeStripe = edgeStripes[stripe(exEdge.hashCode())];
+			  synchronized (edgeStripe){
+				  Entry found = edgeStripe.find(exEdge);
+				  if (found==null){
+					  return true;
+				  }
+				  Edge edge = (Edge)(found.value());
+				  //only the locks of the edge's own ends make it safe to unlink it;
+				  boolean ours = (edge.vertex1==inU && edge.vertex2==inV) ||
+				                 (edge.vertex1==inV && edge.vertex2==inU);
+				  if (!ours || (!removing && (inU.removed || inV.removed))){
+					  return false;
+				  }
+				  edgeStripe.remove(exEdge);
+				  try {
+					  edge.myNode1.remove();
+					  if (edge.myNode2!=null){
+						  edge.myNode2.remove();
+					  }
+				  }catch (InvalidNodeException e){
+					  e.printStackTrace();
+				  }
+				  numEdges.decrement();
+				  return true;
+			  }
+		  }
+	  }
+  }
+
+  // lookup returns the Vertex of an object, or null if it is not a vertex;
+  private Vertex lookup(Object vertex){
+	  int s = stripe(vertex.hashCode());
+	  synchronized (vertexStripes[s]){
+		  Entry found = vertexStripes[s].find(vertex);
+		  if (found==null){
+			  return null;
+		  }
+		  return (Vertex)(found.value());
+	  }
+  }
+
+  // stripe picks the stripe of a hash code;
+  private static int stripe(int code){
+	  return Hashing.mix(code, 0x5bd1e995) & (STRIPES-1);
+  }
+
+}
@@ -0,0 +1,137 @@
+/* CsrGraph.java */
+
+package graph;
+import dict.*;
+
+/**
+ * The CsrGraph class is an immutable snapshot of a WUGraph, stored in
+ * compressed-sparse-row form.  The vertices are renumbered 0...vertexCount()-1
+ * in the order getVertices() returned them.  The neighbors of vertex i occupy
+ * positions offsets()[i] through offsets()[i+1]-1 of the targets() and
+ * weights() arrays.  An edge (i, j) is stored once under i and once under j;
+ * a self-edge is stored only once.
+ *
+ * Every undirected edge also has an id in the range 0...edgeCount()-1, and
+ * edgeIds() gives the id of the edge stored at each position, so both copies
+ * of an edge carry the same id.  Ids are handed out scanning the vertices in
+ * order, the first time an edge is met; that is, at its lower-numbered end.
+ *
+ * The arrays returned by offsets(), targets(), weights() and edgeIds() are the
+ * snapshot itself, not copies.  Do not modify them.
+ */
+
+public class CsrGraph {
+	Object[] vertexObjects;			//the user-level vertex of each id;
+	int[] offsets;					//where the neighbors of each id start (length vertexCount()+1);
+	int[] targets;					//the neighbor ids, grouped by vertex;
+	int[] weights;					//the weight of each entry of targets;
+	int[] edgeIds;					//the undirected edge id of each entry of targets;
+	int numEdges;					//the number of undirected edges;
+	OpenHashTable index;			//maps each vertex object to its Integer id;
+
+  CsrGraph(Object[] vertexObjects, int[] offsets, int[] targets, int[] weights,
+           int[] edgeIds, int numEdges, OpenHashTable index){
+	  this.vertexObjects = vertexObjects;
+	  this.offsets = offsets;
+	  this.targets = targets;
+	  this.weights = weights;
+	  this.edgeIds = edgeIds;
+	  this.numEdges = numEdges;
+	  this.index = index;
+  }
+
+  /**
+   * vertexCount() returns the number of vertices in the snapshot.
+   *
+   * Running time:  O(1).
+   */
+  public int vertexCount(){
+	  return vertexObjects.length;
+  }
+
+  /**
+   * edgeCount() returns the number of undirected edges in the snapshot.
+   *
+   * Running time:  O(1).
+   */
+  public int edgeCount(){
+	  return numEdges;
+  }
+
+  /**
+   * vertex() returns the object that served as vertex "id" in the WUGraph.
+   *
+   * Running time:  O(1).
+   */
+  public Object vertex(int id){
+	  return vertexObjects[id];
+  }
+
+  /**
+   * indexOf() returns the id of the parameter "vertex", or -1 if it is not a
+   * vertex of the snapshot.
+   *
+   * Running time:  O(1).
+   */
+  public int indexOf(Object vertex){
+	  Object found = index.get(vertex);
+	  if (found == null){
+		  return -1;
+	  }
+	  return ((Integer)found).intValue();
+  }
+
+  /**
+   * degree() returns the degree of vertex "id".  Self-edges add only one to
+   * the degree of a vertex.
+   *
+   * Running time:  O(1).
+   */
+  public int degree(int id){
+	  return offsets[id+1]-offsets[id];
+  }
+
+  /**
+   * offsets() returns the array of row starts:  the neighbors of vertex i
+   * are at positions offsets()[i] through offsets()[i+1]-1 of targets(),
+   * weights() and edgeIds().  It has vertexCount()+1 entries.  Do not modify
+   * it.
+   *
+   * Running time:  O(1).
+   */
+  public int[] offsets(){
+	  return offsets;
+  }
+
+  /**
+   * targets() returns the neighbor id stored at each position.  Do not
+   * modify it.
+   *
+   * Running time:  O(1).
+   */
+  public int[] targets(){
+	  return targets;
+  }
+
+  /**
+   * weights() returns the weight of the edge stored at each position.  Do
+   * not modify it.
+   *
+   * Running time:  O(1).
+   */
+  public int[] weights(){
+	  return weights;
+  }
+
+  /**
+   * edgeIds() returns the undirected edge id, in the range
+   * 0...edgeCount()-1, of the edge stored at each position.  Do not modify
+   * it.
+   *
+   * Running time:  O(1).
+   */
+  public int[] edgeIds(){
+	  return edgeIds;
+  }
+
+}
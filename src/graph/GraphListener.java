@@ -0,0 +1,43 @@
+/* GraphListener.java */
+
+package graph;
+
+/**
+ * A GraphListener is told about every change made to a WUGraph it has been
+ * added to with WUGraph.addListener().  Each method is called after the
+ * change has been made.  A listener must not change the graph from within
+ * these methods.
+ */
+
+public interface GraphListener {
+
+  /**
+   * vertexAdded() is called when "vertex" becomes a vertex of the graph.
+   */
+  public void vertexAdded(Object vertex);
+
+  /**
+   * vertexRemoved() is called when "vertex" is removed from the graph.  Each
+   * of its edges has already been reported to edgeRemoved().
+   */
+  public void vertexRemoved(Object vertex);
+
+  /**
+   * edgeAdded() is called when edge (u, v), with weight "weight", is added
+   * to the graph.
+   */
+  public void edgeAdded(Object u, Object v, int weight);
+
+  /**
+   * edgeWeightChanged() is called when addEdge() is called for the existing
+   * edge (u, v) and changes its weight from oldWeight to newWeight.
+   */
+  public void edgeWeightChanged(Object u, Object v, int oldWeight, int newWeight);
+
+  /**
+   * edgeRemoved() is called when edge (u, v), which had weight "weight", is
+   * removed from the graph, either by removeEdge() or by removeVertex().
+   */
+  public void edgeRemoved(Object u, Object v, int weight);
+
+}
@@ -0,0 +1,404 @@
+/* GraphSnapshot.java */
+
+package graph;
+import dict.*;
+
+/**
+ * The GraphSnapshot class is an immutable, point-in-time view of a WUGraph,
+ * returned by WUGraph.snapshot().  It does not copy the graph.  Instead it
+ * shares a CsrGraph of an earlier state of the graph (the base) and a prefix
+ * of the WUGraph's append-only log of changes made since then.  The WUGraph
+ * only ever appends past that prefix, or starts a new log, so the snapshot's
+ * view never changes, and the graph's writer never waits for its readers.
+ *
+ * The first query reduces the snapshot's part of the log to its net change
+ * (a LogDelta), in time proportional to the log, not the graph.  isVertex(),
+ * degree() and getNeighbors() then read the base and the delta together.
+ * csr() builds the snapshot's own CsrGraph by copying the base's arrays, with
+ * the delta applied on the way, and keeps it; the WUGraph may later adopt it
+ * as the base for new snapshots.  That work is done by the reading thread,
+ * once.  A snapshot taken with an empty log is just the base, at no cost.
+ *
+ * A GraphSnapshot may be read from any number of threads.
+ */
+
+public class GraphSnapshot {
+	static final byte ADD_VERTEX = 0;		//the kinds of change in the log;
+	static final byte REMOVE_VERTEX = 1;
+	static final byte ADD_EDGE = 2;			//a new edge;
+	static final byte REMOVE_EDGE = 3;
+	static final byte CHANGE_WEIGHT = 4;	//a new weight for an edge already there;
+
+	private final CsrGraph base;
+	private final byte[] logOps;
+	private final Object[] logU;
+	private final Object[] logV;
+	private final int[] logW;
+	final int logSize;						//how much of the log the snapshot covers;
+	final int generation;					//which of the WUGraph's logs logOps belongs to;
+	private final int numVertices;
+	private final int numEdges;
+	private LogDelta delta;					//the net change since base; built on first use;
+	private OpenHashTable changedEdges;		//maps the base id of each touched base edge to its EdgeDelta;
+	private volatile CsrGraph view;			//base with the delta applied; built on first use of csr();
+
+  GraphSnapshot(CsrGraph base, byte[] logOps, Object[] logU, Object[] logV,
+                int[] logW, int logSize, int generation, int numVertices,
+                int numEdges){
+	  this.base = base;
+	  this.logOps = logOps;
+	  this.logU = logU;
+	  this.logV = logV;
+	  this.logW = logW;
+	  this.logSize = logSize;
+	  this.generation = generation;
+	  this.numVertices = numVertices;
+	  this.numEdges = numEdges;
+  }
+
+  /**
+   * vertexCount() returns the number of vertices in the snapshot.
+   *
+   * Running time:  O(1).
+   */
+  public int vertexCount(){
+	  return numVertices;
+  }
+
+  /**
+   * edgeCount() returns the number of edges in the snapshot.
+   *
+   * Running time:  O(1).
+   */
+  public int edgeCount(){
+	  return numEdges;
+  }
+
+  /**
+   * csr() returns the snapshot as a CsrGraph, which algorithms such as
+   * Kruskal.minSpanTree() take directly.
+   *
+   * Running time:  O(1) after the first call, which takes O(|V| + |E|) if any
+   * change was logged since the base was built.
+   */
+  public synchronized CsrGraph csr(){
+	  if (view==null){
+		  view = (logSize==0) ? base : build();
+	  }
+	  return view;
+  }
+
+  // built returns the snapshot's CsrGraph if csr() has built it already, or null;
+  CsrGraph built(){
+	  return view;
+  }
+
+  /**
+   * getVertices() returns a new array of the vertices in the snapshot, in
+   * the order WUGraph.getVertices() returned them when the snapshot was
+   * taken.
+   *
+   * Running time:  O(|V|).
+   */
+  public Object[] getVertices(){
+	  LogDelta d = delta();
+	  Object[] temp = new Object[numVertices];
+	  int n0 = base.vertexCount();
+	  boolean[] gone = removedBaseVertices(d);
+	  int i = 0;
+	  for (int v=0;v<n0;v++){
+		  if (gone==null || !gone[v]){
+			  temp[i] = base.vertexObjects[v];
+			  i++;
+		  }
+	  }
+	  LogDelta.VertexDelta[] added = d.addedVertices();
+	  for (int j=0;j<added.length;j++){
+		  temp[i] = added[j].vertex;
+		  i++;
+	  }
+	  return temp;
+  }
+
+  /**
+   * isVertex() returns true if "vertex" was a vertex when the snapshot was
+   * taken.
+   *
+   * Running time:  O(1).
+   */
+  public boolean isVertex(Object vertex){
+	  LogDelta.VertexDelta x = delta().vertex(vertex);
+	  if (x!=null){
+		  return x.present;
+	  }
+	  return base.indexOf(vertex)>=0;
+  }
+
+  /**
+   * degree() returns the degree "vertex" had when the snapshot was taken, or
+   * zero if it was not a vertex.
+   *
+   * Running time:  O(1).
+   */
+  public int degree(Object vertex){
+	  LogDelta.VertexDelta x = delta().vertex(vertex);
+	  if (x!=null){
+		  return x.present ? x.degree : 0;
+	  }
+	  int id = base.indexOf(vertex);
+	  if (id<0){
+		  return 0;
+	  }
+	  return base.degree(id);
+  }
+
+  /**
+   * getNeighbors() returns a new Neighbors object describing the edges of
+   * "vertex" when the snapshot was taken, as WUGraph.getNeighbors() does.
+   *
+   * Running time:  O(d), where d is the degree of "vertex" in the snapshot
+   * or in the base, whichever is larger.
+   */
+  public Neighbors getNeighbors(Object vertex){
+	  LogDelta d = delta();
+	  LogDelta.VertexDelta x = d.vertex(vertex);
+	  int id;
+	  int count;
+	  if (x==null){
+		  id = base.indexOf(vertex);
+		  if (id<0){
+			  return null;
+		  }
+		  count = base.degree(id);
+	  }else{
+		  if (!x.present){
+			  return null;
+		  }
+		  id = x.kept() ? x.baseId : -1;
+		  count = x.degree;
+	  }
+	  if (count==0){
+		  return null;
+	  }
+	  Neighbors myNeighbors = new Neighbors();
+	  myNeighbors.neighborList = new Object[count];
+	  myNeighbors.weightList = new int[count];
+	  int i = 0;
+	  if (id>=0){
+		  for (int k=base.offsets[id];k<base.offsets[id+1];k++){
+			  int weight = base.weights[k];
+			  if (x!=null){
+				  LogDelta.EdgeDelta e = (LogDelta.EdgeDelta)(changedEdges.get(Integer.valueOf(base.edgeIds[k])));
+				  if (e!=null){
+					  if (!e.survives()){
+						  continue;
+					  }
+					  weight = e.weight;
+				  }
+			  }
+			  myNeighbors.neighborList[i] = base.vertexObjects[base.targets[k]];
+			  myNeighbors.weightList[i] = weight;
+			  i++;
+		  }
+	  }
+	  if (x!=null){
+		  for (int j=0;j<x.numEdges;j++){
+			  LogDelta.EdgeDelta e = x.edges[j];
+			  if (e.present && !e.survives()){
+				  myNeighbors.neighborList[i] = e.other(x).vertex;
+				  myNeighbors.weightList[i] = e.weight;
+				  i++;
+			  }
+		  }
+	  }
+	  return myNeighbors;
+  }
+
+  // delta reduces the log prefix to its net change on first use, and numbers it against the base;
+  private synchronized LogDelta delta(){
+	  if (delta==null){
+		  LogDelta d = new LogDelta(logOps, logU, logV, logW, 0, logSize);
+		  for (int i=0;i<d.numVertices;i++){
+			  LogDelta.VertexDelta x = d.vertexList[i];
+			  if (x.atStart){
+				  x.baseId = base.indexOf(x.vertex);
+				  if (x.kept()){
+					  //answer with the object the base holds, as WUGraph would;
+					  x.vertex = base.vertexObjects[x.baseId];
+				  }
+			  }
+		  }
+		  changedEdges = new OpenHashTable(d.numEdges);
+		  for (int i=0;i<d.numEdges;i++){
+			  LogDelta.EdgeDelta e = d.edgeList[i];
+			  if (e.atStart && (e.end1.kept() || e.end2.kept())){
+				  //the entry of an edge is only ever looked for in the row of a kept end;
+				  e.baseEdge = baseEdge(e.end1.baseId, e.end2.baseId);
+				  changedEdges.insert(Integer.valueOf(e.baseEdge), e);
+			  }
+		  }
+		  for (int i=0;i<d.numVertices;i++){
+			  LogDelta.VertexDelta x = d.vertexList[i];
+			  x.degree = x.kept() ? base.degree(x.baseId) : 0;
+			  for (int j=0;j<x.numEdges;j++){
+				  LogDelta.EdgeDelta e = x.edges[j];
+				  if (e.present){
+					  x.degree++;
+				  }
+				  if (x.kept() && e.atStart){
+					  x.degree--;
+				  }
+			  }
+		  }
+		  delta = d;
+	  }
+	  return delta;
+  }
+
+  // baseEdge returns the base id of the edge between base vertices a and b, found in the shorter row;
+  private int baseEdge(int a, int b){
+	  if (base.degree(a)>base.degree(b)){
+		  int temp = a;
+		  a = b;
+		  b = temp;
+	  }
+	  for (int k=base.offsets[a];k<base.offsets[a+1];k++){
+		  if (base.targets[k]==b){
+			  return base.edgeIds[k];
+		  }
+	  }
+	  return -1;
+  }
+
+  // removedBaseVertices marks the base vertices not in the snapshot, or returns null if there are none;
+  private boolean[] removedBaseVertices(LogDelta d){
+	  boolean[] gone = null;
+	  for (int i=0;i<d.numVertices;i++){
+		  LogDelta.VertexDelta x = d.vertexList[i];
+		  if (x.atStart && x.removed){
+			  if (gone==null){
+				  gone = new boolean[base.vertexCount()];
+			  }
+			  gone[x.baseId] = true;
+		  }
+	  }
+	  return gone;
+  }
+
+  // build copies the base's rows into a new CsrGraph, leaving out, re-weighting and adding what the delta says;
+  private CsrGraph build(){
+	  LogDelta d = delta();
+	  int n0 = base.vertexCount();
+	  //kept base vertices come first, in their base order, then added vertices in the order of their last addition;
+	  boolean[] gone = removedBaseVertices(d);
+	  LogDelta.VertexDelta[] added = d.addedVertices();
+	  int[] newId = new int[n0];
+	  int[] baseOf = new int[numVertices];
+	  int kept = 0;
+	  for (int v=0;v<n0;v++){
+		  if (gone!=null && gone[v]){
+			  newId[v] = -1;
+		  }else{
+			  newId[v] = kept;
+			  baseOf[kept] = v;
+			  kept++;
+		  }
+	  }
+	  LogDelta.VertexDelta[] touched = new LogDelta.VertexDelta[n0];
+	  for (int i=0;i<d.numVertices;i++){
+		  LogDelta.VertexDelta x = d.vertexList[i];
+		  if (x.kept()){
+			  x.id = newId[x.baseId];
+			  touched[x.baseId] = x;
+		  }
+	  }
+	  for (int j=0;j<added.length;j++){
+		  added[j].id = kept+j;
+	  }
+
+	  int n = numVertices;
+	  int[] offsets = new int[n+1];
+	  for (int i=0;i<n;i++){
+		  int degree;
+		  if (i<kept){
+			  LogDelta.VertexDelta x = touched[baseOf[i]];
+			  degree = (x==null) ? base.degree(baseOf[i]) : x.degree;
+		  }else{
+			  degree = added[i-kept].degree;
+		  }
+		  offsets[i+1] = offsets[i]+degree;
+	  }
+	  LogDelta.EdgeDelta[] changed = new LogDelta.EdgeDelta[base.edgeCount()];
+	  for (int i=0;i<d.numEdges;i++){
+		  LogDelta.EdgeDelta e = d.edgeList[i];
+		  if (e.baseEdge>=0){
+			  changed[e.baseEdge] = e;
+		  }
+	  }
+
+	  int[] targets = new int[offsets[n]];
+	  int[] weights = new int[offsets[n]];
+	  int[] edgeIds = new int[offsets[n]];
+	  int[] renumber = new int[base.edgeCount()];
+	  int nextId = 0;
+	  for (int i=0;i<n;i++){
+		  int k = offsets[i];
+		  LogDelta.VertexDelta x;
+		  if (i<kept){
+			  int v = baseOf[i];
+			  x = touched[v];
+			  for (int j=base.offsets[v];j<base.offsets[v+1];j++){
+				  int e = base.edgeIds[j];
+				  int weight = base.weights[j];
+				  if (changed[e]!=null){
+					  if (!changed[e].survives()){
+						  continue;
+					  }
+					  weight = changed[e].weight;
+				  }
+				  int t = newId[base.targets[j]];
+				  //an edge is numbered at its lower end, which comes first, as in WUGraph.freeze();
+				  if (t>=i){
+					  renumber[e] = nextId;
+					  nextId++;
+				  }
+				  targets[k] = t;
+				  weights[k] = weight;
+				  edgeIds[k] = renumber[e];
+				  k++;
+			  }
+		  }else{
+			  x = added[i-kept];
+		  }
+		  if (x!=null){
+			  for (int j=0;j<x.numEdges;j++){
+				  LogDelta.EdgeDelta e = x.edges[j];
+				  if (e.present && !e.survives()){
+					  int t = e.other(x).id;
+					  if (t>=i){
+						  e.id = nextId;
+						  nextId++;
+					  }
+					  targets[k] = t;
+					  weights[k] = e.weight;
+					  edgeIds[k] = e.id;
+					  k++;
+				  }
+			  }
+		  }
+	  }
+
+	  if (gone==null && added.length==0){
+		  //the same vertices in the same order, so the base's index serves;
+		  return new CsrGraph(base.vertexObjects, offsets, targets, weights, edgeIds, nextId, base.index);
+	  }
+	  Object[] vLst = new Object[n];
+	  OpenHashTable index = new OpenHashTable(n);
+	  for (int i=0;i<n;i++){
+		  vLst[i] = (i<kept) ? base.vertexObjects[baseOf[i]] : added[i-kept].vertex;
+		  index.insert(vLst[i], Integer.valueOf(i));
+	  }
+	  return new CsrGraph(vLst, offsets, targets, weights, edgeIds, nextId, index);
+  }
+
+}
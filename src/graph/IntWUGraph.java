@@ -0,0 +1,421 @@
+/* IntWUGraph.java */
+
+package graph;
+
+/**
+ * The IntWUGraph class represents a weighted, undirected graph whose vertices
+ * are non-negative ints.  Self-edges are permitted.  It behaves like WUGraph,
+ * but nothing is boxed:  each vertex keeps its adjacency in an int array, the
+ * edges live in parallel int arrays, and the edge index is an open-addressing
+ * table keyed by the packed (smaller id, larger id) pair.
+ *
+ * Memory for vertex bookkeeping is proportional to the largest id ever added,
+ * so ids should be reasonably dense.
+ */
+
+public class IntWUGraph {
+	private static final long EMPTY = -1L;	//marks a free slot of the edge index (real keys are never negative);
+
+	boolean[] present;			//present[v] is true if v is a vertex;
+	int[] vertexLst;			//the vertices, in no particular order;
+	int[] vertexPos;			//the position of each vertex in vertexLst;
+	int[][] adjNeighbor;		//adjNeighbor[v][0...degree[v]-1] are the neighbors of v;
+	int[][] adjEdge;			//adjEdge[v][i] is the edge id behind adjNeighbor[v][i];
+	int[] degree;				//the degree of each vertex;
+
+	int[] edgeU;				//the endpoints, weight, and adjacency positions of each edge id;
+	int[] edgeV;
+	int[] edgeW;
+	int[] edgePosU;
+	int[] edgePosV;
+	int[] freeEdges;			//a stack of edge ids released by removeEdge();
+	int numFree;
+	int edgeIdLimit;			//edge ids below this have been handed out at least once;
+
+	long[] keys;				//the edge index:  packed vertex pairs, EMPTY for free slots;
+	int[] slots;				//the edge id stored with each key;
+
+	int numVertices;
+	int numEdges;
+
+  /**
+   * IntWUGraph() constructs a graph having no vertices or edges.
+   *
+   * Running time:  O(1).
+   */
+  public IntWUGraph(){
+	  present = new boolean[16];
+	  vertexLst = new int[16];
+	  vertexPos = new int[16];
+	  adjNeighbor = new int[16][];
+	  adjEdge = new int[16][];
+	  degree = new int[16];
+	  edgeU = new int[16];
+	  edgeV = new int[16];
+	  edgeW = new int[16];
+	  edgePosU = new int[16];
+	  edgePosV = new int[16];
+	  freeEdges = new int[16];
+	  keys = new long[32];
+	  slots = new int[32];
+	  java.util.Arrays.fill(keys, EMPTY);
+	  numVertices = 0;
+	  numEdges = 0;
+  }
+
+  /**
+   * vertexCount() returns the number of vertices in the graph.
+   *
+   * Running time:  O(1).
+   */
+  public int vertexCount(){
+	  return numVertices;
+  }
+
+  /**
+   * edgeCount() returns the total number of edges in the graph.
+   *
+   * Running time:  O(1).
+   */
+  public int edgeCount(){
+	  return numEdges;
+  }
+
+  /**
+   * getVertices() returns a new array containing every vertex of the graph.
+   * The array's length is exactly equal to the number of vertices.
+   *
+   * Running time:  O(|V|).
+   */
+  public int[] getVertices(){
+	  int[] temp = new int[numVertices];
+	  System.arraycopy(vertexLst, 0, temp, 0, numVertices);
+	  return temp;
+  }
+
+  /**
+   * addVertex() adds a vertex (with no incident edges) to the graph.  If
+   * "vertex" is already a vertex of the graph, or is negative, the graph is
+   * unchanged.
+   *
+   * Running time:  O(1) amortized.
+   */
+  public void addVertex(int vertex){
+	  if (vertex<0 || isVertex(vertex)){
+		  return;
+	  }
+	  if (vertex>=present.length){
+		  int size = Math.max(vertex+1, 2*present.length);
+		  present = copyOf(present, size);
+		  vertexPos = copyOf(vertexPos, size);
+		  degree = copyOf(degree, size);
+		  int[][] tempN = new int[size][];
+		  int[][] tempE = new int[size][];
+		  System.arraycopy(adjNeighbor, 0, tempN, 0, adjNeighbor.length);
+		  System.arraycopy(adjEdge, 0, tempE, 0, adjEdge.length);
+		  adjNeighbor = tempN;
+		  adjEdge = tempE;
+	  }
+	  if (numVertices==vertexLst.length){
+		  vertexLst = copyOf(vertexLst, 2*numVertices);
+	  }
+	  present[vertex] = true;
+	  degree[vertex] = 0;
+	  vertexLst[numVertices] = vertex;
+	  vertexPos[vertex] = numVertices;
+	  numVertices++;
+  }
+
+  /**
+   * removeVertex() removes a vertex from the graph.  All edges incident on the
+   * deleted vertex are removed as well.  If the parameter "vertex" does not
+   * represent a vertex of the graph, the graph is unchanged.
+   *
+   * Running time:  O(d), where d is the degree of "vertex".
+   */
+  public void removeVertex(int vertex){
+	  if (isVertex(vertex)){
+		  while (degree[vertex]>0){
+			  removeEdgeId(adjEdge[vertex][degree[vertex]-1]);
+		  }
+		  int last = vertexLst[numVertices-1];
+		  vertexLst[vertexPos[vertex]] = last;
+		  vertexPos[last] = vertexPos[vertex];
+		  numVertices--;
+		  present[vertex] = false;
+		  adjNeighbor[vertex] = null;
+		  adjEdge[vertex] = null;
+	  }
+  }
+
+  /**
+   * isVertex() returns true if the parameter "vertex" represents a vertex of
+   * the graph.
+   *
+   * Running time:  O(1).
+   */
+  public boolean isVertex(int vertex){
+	  return vertex>=0 && vertex<present.length && present[vertex];
+  }
+
+  /**
+   * degree() returns the degree of a vertex.  Self-edges add only one to the
+   * degree of a vertex.  If the parameter "vertex" doesn't represent a vertex
+   * of the graph, zero is returned.
+   *
+   * Running time:  O(1).
+   */
+  public int degree(int vertex){
+	  if (isVertex(vertex)){
+		  return degree[vertex];
+	  }
+	  return 0;
+  }
+
+  /**
+   * getNeighbors() returns a new IntNeighbors object referencing two new
+   * arrays, holding the neighbors of "vertex" and the weights of the
+   * corresponding edges.  If the vertex has degree zero, or if the parameter
+   * "vertex" does not represent a vertex of the graph, null is returned.
+   *
+   * Running time:  O(d), where d is the degree of "vertex".
+   */
+  public IntNeighbors getNeighbors(int vertex){
+	  if (degree(vertex)!=0){
+		  int d = degree[vertex];
+		  IntNeighbors myNeighbors = new IntNeighbors();
+		  myNeighbors.neighborList = new int[d];
+		  myNeighbors.weightList = new int[d];
+		  System.arraycopy(adjNeighbor[vertex], 0, myNeighbors.neighborList, 0, d);
+		  for (int i=0;i<d;i++){
+			  myNeighbors.weightList[i] = edgeW[adjEdge[vertex][i]];
+		  }
+		  return myNeighbors;
+	  }
+	  return null;
+  }
+
+  /**
+   * addEdge() adds an edge (u, v) to the graph.  If either of the parameters
+   * u and v does not represent a vertex of the graph, the graph is unchanged.
+   * The edge is assigned a weight of "weight".  If the graph already contains
+   * edge (u, v), the weight is updated to reflect the new value.  Self-edges
+   * (where u == v) are allowed.
+   *
+   * Running time:  O(1) amortized.
+   */
+  public void addEdge(int u, int v, int weight){
+	  if (!isVertex(u) || !isVertex(v)){
+		  return;
+	  }
+	  long key = pack(u, v);
+	  int slot = findSlot(key);
+	  if (keys[slot]!=EMPTY){
+		  edgeW[slots[slot]] = weight;
+		  return;
+	  }
+	  int e = newEdgeId();
+	  edgeU[e] = u;
+	  edgeV[e] = v;
+	  edgeW[e] = weight;
+	  edgePosU[e] = append(u, v, e);
+	  if (u!=v){
+		  edgePosV[e] = append(v, u, e);
+	  }else{
+		  edgePosV[e] = edgePosU[e];
+	  }
+	  keys[slot] = key;
+	  slots[slot] = e;
+	  numEdges++;
+	  if (2*numEdges>keys.length){
+		  rehash(2*keys.length);
+	  }
+  }
+
+  /**
+   * removeEdge() removes an edge (u, v) from the graph.  If (u, v) is not an
+   * edge of the graph, the graph is unchanged.
+   *
+   * Running time:  O(1).
+   */
+  public void removeEdge(int u, int v){
+	  int e = edgeId(u, v);
+	  if (e>=0){
+		  removeEdgeId(e);
+	  }
+  }
+
+  /**
+   * isEdge() returns true if (u, v) is an edge of the graph.
+   *
+   * Running time:  O(1).
+   */
+  public boolean isEdge(int u, int v){
+	  return edgeId(u, v)>=0;
+  }
+
+  /**
+   * weight() returns the weight of (u, v).  Returns zero if (u, v) is not
+   * an edge (including the case where either of the parameters u and v does
+   * not represent a vertex of the graph).
+   *
+   * Running time:  O(1).
+   */
+  public int weight(int u, int v){
+	  int e = edgeId(u, v);
+	  if (e>=0){
+		  return edgeW[e];
+	  }
+	  return 0;
+  }
+
+  // edgeId returns the id of edge (u, v), or -1 if there is no such edge;
+  private int edgeId(int u, int v){
+	  if (u<0 || v<0){
+		  return -1;
+	  }
+	  int slot = findSlot(pack(u, v));
+	  if (keys[slot]==EMPTY){
+		  return -1;
+	  }
+	  return slots[slot];
+  }
+
+  // removeEdgeId detaches edge e from both adjacency arrays and the edge index;
+  private void removeEdgeId(int e){
+	  int u = edgeU[e];
+	  int v = edgeV[e];
+	  detach(u, edgePosU[e]);
+	  if (u!=v){
+		  detach(v, edgePosV[e]);
+	  }
+	  deleteKey(findSlot(pack(u, v)));
+	  if (numFree==freeEdges.length){
+		  freeEdges = copyOf(freeEdges, 2*numFree);
+	  }
+	  freeEdges[numFree] = e;
+	  numFree++;
+	  numEdges--;
+  }
+
+  // append adds (neighbor, e) to the adjacency of vertex and returns its position;
+  private int append(int vertex, int neighbor, int e){
+	  int d = degree[vertex];
+	  if (adjNeighbor[vertex]==null){
+		  adjNeighbor[vertex] = new int[4];
+		  adjEdge[vertex] = new int[4];
+	  }else if (d==adjNeighbor[vertex].length){
+		  adjNeighbor[vertex] = copyOf(adjNeighbor[vertex], 2*d);
+		  adjEdge[vertex] = copyOf(adjEdge[vertex], 2*d);
+	  }
+	  adjNeighbor[vertex][d] = neighbor;
+	  adjEdge[vertex][d] = e;
+	  degree[vertex] = d+1;
+	  return d;
+  }
+
+  // detach removes position pos from the adjacency of vertex by moving the last entry into it;
+  private void detach(int vertex, int pos){
+	  int last = degree[vertex]-1;
+	  if (pos!=last){
+		  int moved = adjEdge[vertex][last];
+		  adjNeighbor[vertex][pos] = adjNeighbor[vertex][last];
+		  adjEdge[vertex][pos] = moved;
+		  if (edgeU[moved]==vertex && edgePosU[moved]==last){
+			  edgePosU[moved] = pos;
+		  }
+		  if (edgeV[moved]==vertex && edgePosV[moved]==last){
+			  edgePosV[moved] = pos;
+		  }
+	  }
+	  degree[vertex] = last;
+  }
+
+  // newEdgeId reuses a released edge id if there is one, otherwise takes a fresh one;
+  private int newEdgeId(){
+	  if (numFree>0){
+		  numFree--;
+		  return freeEdges[numFree];
+	  }
+	  if (edgeIdLimit==edgeU.length){
+		  int size = 2*edgeIdLimit;
+		  edgeU = copyOf(edgeU, size);
+		  edgeV = copyOf(edgeV, size);
+		  edgeW = copyOf(edgeW, size);
+		  edgePosU = copyOf(edgePosU, size);
+		  edgePosV = copyOf(edgePosV, size);
+	  }
+	  edgeIdLimit++;
+	  return edgeIdLimit-1;
+  }
+
+  // pack turns the unordered pair (u, v) into a single non-negative key;
+  private static long pack(int u, int v){
+	  if (u<=v){
+		  return ((long)u<<32) | v;
+	  }
+	  return ((long)v<<32) | u;
+  }
+
+  // findSlot returns the slot holding key, or the empty slot where it would go;
+  private int findSlot(long key){
+	  int mask = keys.length-1;
+	  int slot = home(key, mask);
+	  while (keys[slot]!=EMPTY && keys[slot]!=key){
+		  slot = (slot+1) & mask;
+	  }
+	  return slot;
+  }
+
+  // home is the slot where a key's probe run starts (Fibonacci hashing);
+  private static int home(long key, int mask){
+	  return (int)((key*0x9E3779B97F4A7C15L)>>>32) & mask;
+  }
+
+  // deleteKey empties a slot and shifts later members of its probe run back, so no tombstones are needed;
+  private void deleteKey(int slot){
+	  int mask = keys.length-1;
+	  int hole = slot;
+	  int cur = (slot+1) & mask;
+	  while (keys[cur]!=EMPTY){
+		  int home = home(keys[cur], mask);
+		  //move the key back if its home does not lie cyclically in (hole, cur];
+		  if (((cur-home) & mask) >= ((cur-hole) & mask)){
+			  keys[hole] = keys[cur];
+			  slots[hole] = slots[cur];
+			  hole = cur;
+		  }
+		  cur = (cur+1) & mask;
+	  }
+	  keys[hole] = EMPTY;
+  }
+
+  // rehash moves the edge index into a table of the given (power of two) size;
+  private void rehash(int size){
+	  long[] oldKeys = keys;
+	  int[] oldSlots = slots;
+	  keys = new long[size];
+	  slots = new int[size];
+	  java.util.Arrays.fill(keys, EMPTY);
+	  for (int i=0;i<oldKeys.length;i++){
+		  if (oldKeys[i]!=EMPTY){
+			  int slot = findSlot(oldKeys[i]);
+			  keys[slot] = oldKeys[i];
+			  slots[slot] = oldSlots[i];
+		  }
+	  }
+  }
+
+  private static int[] copyOf(int[] a, int size){
+	  int[] temp = new int[size];
+	  System.arraycopy(a, 0, temp, 0, Math.min(a.length, size));
+	  return temp;
+  }
+
+  private static boolean[] copyOf(boolean[] a, int size){
+	  boolean[] temp = new boolean[size];
+	  System.arraycopy(a, 0, temp, 0, Math.min(a.length, size));
+	  return temp;
+  }
+
+}
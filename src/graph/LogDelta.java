@@ -0,0 +1,280 @@
+/* LogDelta.java */
+
+package graph;
+import dict.*;
+import java.util.Arrays;
+
+/**
+ * The LogDelta class reduces a stretch of a WUGraph's snapshot log to its net
+ * effect:  for each vertex and edge the stretch touches, whether it was there
+ * at the start, whether it is there at the end, and its final weight.  An
+ * item added and then removed again leaves nothing behind, so a delta is
+ * never bigger than the set of items that really changed.
+ *
+ * GraphSnapshot answers queries from its base plus the delta of its part of
+ * the log, and WUGraph rewrites its log as the delta (see write()) so that
+ * the log stays bounded however long the graph keeps changing.
+ *
+ * The log records changes, not states, so the state at the start of the
+ * stretch is read off the first change to each item:  a vertex was there
+ * unless its first change is ADD_VERTEX, and an edge was there if its first
+ * change is REMOVE_EDGE or CHANGE_WEIGHT.  WUGraph logs the removal of every
+ * edge of a vertex before the removal of the vertex itself.
+ */
+
+class LogDelta {
+
+  /**
+   * A VertexDelta is the net change to one vertex.
+   */
+  static class VertexDelta {
+	Object vertex;					//the vertex object (the one last added, if it was re-added);
+	boolean atStart;				//whether it was a vertex at the start of the stretch;
+	boolean removed;				//whether it was removed at some point;
+	boolean present;				//whether it is a vertex at the end;
+	int lastAdd;					//the log position of its last ADD_VERTEX;
+	EdgeDelta[] edges;				//the touched edges that end at this vertex;
+	int numEdges;
+	int baseId;						//scratch numbers, only meaningful inside GraphSnapshot;
+	int id;
+	int degree;
+
+	VertexDelta(Object vertex, boolean atStart){
+		this.vertex = vertex;
+		this.atStart = atStart;
+		present = atStart;
+		lastAdd = -1;
+		edges = new EdgeDelta[2];
+	}
+
+	// kept returns true if this is the same vertex at the end as at the start;
+	boolean kept(){
+		return atStart && !removed;
+	}
+
+	// attach records that edge e ends here;
+	void attach(EdgeDelta e){
+		if (numEdges==edges.length){
+			EdgeDelta[] temp = new EdgeDelta[2*numEdges];
+			System.arraycopy(edges, 0, temp, 0, numEdges);
+			edges = temp;
+		}
+		edges[numEdges] = e;
+		numEdges++;
+	}
+  }
+
+  /**
+   * An EdgeDelta is the net change to one edge.
+   */
+  static class EdgeDelta {
+	VertexDelta end1;
+	VertexDelta end2;				//the same as end1 for a self-edge;
+	Object u;						//the objects of the edge's last change;
+	Object v;
+	boolean atStart;				//whether it was an edge at the start of the stretch;
+	boolean added;					//whether it was added (not just re-weighted) at some point;
+	boolean present;				//whether it is an edge at the end;
+	int weight;						//the final weight, if present;
+	int baseEdge;					//scratch numbers, only meaningful inside GraphSnapshot;
+	int id;
+
+	EdgeDelta(VertexDelta end1, VertexDelta end2, Object u, Object v, boolean atStart){
+		this.end1 = end1;
+		this.end2 = end2;
+		this.u = u;
+		this.v = v;
+		this.atStart = atStart;
+		present = atStart;
+		baseEdge = -1;
+	}
+
+	// other returns the end of the edge that is not x;
+	VertexDelta other(VertexDelta x){
+		return (end1==x) ? end2 : end1;
+	}
+
+	// survives returns true if the edge's entries at the start are still right at the end, save perhaps its weight;
+	boolean survives(){
+		return atStart && present && end1.kept() && end2.kept();
+	}
+  }
+
+  private OpenHashTable vertexTable;		//maps each touched vertex to its VertexDelta;
+  private OpenHashTable edgeTable;			//maps each touched edge's VertexPair to its EdgeDelta;
+  VertexDelta[] vertexList;					//the VertexDeltas, in the order their vertices were first touched;
+  int numVertices;
+  EdgeDelta[] edgeList;						//the EdgeDeltas, in the order their edges were first touched;
+  int numEdges;
+
+  /**
+   * LogDelta() reduces the log entries from position "from" up to (but not
+   * including) "to".
+   *
+   * Running time:  O(to - from).
+   */
+  LogDelta(byte[] ops, Object[] us, Object[] vs, int[] ws, int from, int to){
+	  vertexTable = new OpenHashTable(to-from);
+	  edgeTable = new OpenHashTable(to-from);
+	  vertexList = new VertexDelta[16];
+	  edgeList = new EdgeDelta[16];
+	  for (int i=from;i<to;i++){
+		  switch (ops[i]){
+		  case GraphSnapshot.ADD_VERTEX:
+			  VertexDelta x = touch(us[i], false);
+			  x.vertex = us[i];
+			  x.present = true;
+			  x.lastAdd = i;
+			  break;
+		  case GraphSnapshot.REMOVE_VERTEX:
+			  x = touch(us[i], true);
+			  x.removed = true;
+			  x.present = false;
+			  break;
+		  default:
+			  EdgeDelta e = touch(us[i], vs[i], ops[i]!=GraphSnapshot.ADD_EDGE);
+			  if (ops[i]==GraphSnapshot.REMOVE_EDGE){
+				  e.present = false;
+			  }else{
+				  e.u = us[i];
+				  e.v = vs[i];
+				  e.weight = ws[i];
+				  e.present = true;
+				  if (ops[i]==GraphSnapshot.ADD_EDGE){
+					  e.added = true;
+				  }
+			  }
+		  }
+	  }
+  }
+
+  /**
+   * vertex() returns the VertexDelta of "vertex", or null if the stretch
+   * never touched it.
+   *
+   * Running time:  O(1).
+   */
+  VertexDelta vertex(Object vertex){
+	  return (VertexDelta)(vertexTable.get(vertex));
+  }
+
+  /**
+   * addedVertices() returns the vertices that are there at the end but were
+   * not at the start (or were removed and added again), in the order they
+   * were last added, which is where WUGraph.getVertices() lists them.
+   *
+   * Running time:  O(k log k), where k is the number of touched vertices.
+   */
+  VertexDelta[] addedVertices(){
+	  long[] keys = new long[numVertices];
+	  int count = 0;
+	  for (int i=0;i<numVertices;i++){
+		  VertexDelta x = vertexList[i];
+		  if (x.present && !x.kept()){
+			  keys[count] = ((long)(x.lastAdd)<<32) | i;
+			  count++;
+		  }
+	  }
+	  Arrays.sort(keys, 0, count);
+	  VertexDelta[] added = new VertexDelta[count];
+	  for (int i=0;i<count;i++){
+		  added[i] = vertexList[(int)(keys[i])];
+	  }
+	  return added;
+  }
+
+  /**
+   * write() writes the delta as log entries into the given arrays (if ops
+   * is not null) and returns how many entries it takes.  Replayed from the
+   * state at the start of the stretch, the entries give the same graph, with
+   * the vertices in the same order, as the whole stretch does.  They come in
+   * four groups:  edge removals, vertex removals, vertex additions (in the
+   * order of the last addition of each) and edge additions and re-weights.
+   *
+   * Running time:  O(k log k), where k is the number of touched items.
+   */
+  int write(byte[] ops, Object[] us, Object[] vs, int[] ws){
+	  int size = 0;
+	  for (int i=0;i<numEdges;i++){
+		  EdgeDelta e = edgeList[i];
+		  if (e.atStart && (!e.present || e.added)){
+			  size = put(ops, us, vs, ws, size, GraphSnapshot.REMOVE_EDGE, e.u, e.v, 0);
+		  }
+	  }
+	  for (int i=0;i<numVertices;i++){
+		  VertexDelta x = vertexList[i];
+		  if (x.atStart && x.removed){
+			  size = put(ops, us, vs, ws, size, GraphSnapshot.REMOVE_VERTEX, x.vertex, null, 0);
+		  }
+	  }
+	  VertexDelta[] added = addedVertices();
+	  for (int i=0;i<added.length;i++){
+		  size = put(ops, us, vs, ws, size, GraphSnapshot.ADD_VERTEX, added[i].vertex, null, 0);
+	  }
+	  for (int i=0;i<numEdges;i++){
+		  EdgeDelta e = edgeList[i];
+		  if (e.present && e.added){
+			  size = put(ops, us, vs, ws, size, GraphSnapshot.ADD_EDGE, e.u, e.v, e.weight);
+		  }else if (e.present){
+			  //an edge there at both ends that was never removed must have been re-weighted;
+			  size = put(ops, us, vs, ws, size, GraphSnapshot.CHANGE_WEIGHT, e.u, e.v, e.weight);
+		  }
+	  }
+	  return size;
+  }
+
+  // put stores one entry at position i (unless only counting) and returns the next position;
+  private static int put(byte[] ops, Object[] us, Object[] vs, int[] ws, int i,
+                         byte op, Object u, Object v, int weight){
+	  if (ops!=null){
+		  ops[i] = op;
+		  us[i] = u;
+		  vs[i] = v;
+		  ws[i] = weight;
+	  }
+	  return i+1;
+  }
+
+  // touch returns the VertexDelta of vertex, making one (as of the given start state) if it is new;
+  private VertexDelta touch(Object vertex, boolean atStart){
+	  VertexDelta x = vertex(vertex);
+	  if (x==null){
+		  x = new VertexDelta(vertex, atStart);
+		  vertexTable.insert(vertex, x);
+		  if (numVertices==vertexList.length){
+			  VertexDelta[] temp = new VertexDelta[2*numVertices];
+			  System.arraycopy(vertexList, 0, temp, 0, numVertices);
+			  vertexList = temp;
+		  }
+		  vertexList[numVertices] = x;
+		  numVertices++;
+	  }
+	  return x;
+  }
+
+  // touch returns the EdgeDelta of (u, v), making one (as of the given start state) if it is new;
+  private EdgeDelta touch(Object u, Object v, boolean atStart){
+	  VertexPair exEdge = new VertexPair(u, v);
+	  EdgeDelta e = (EdgeDelta)(edgeTable.get(exEdge));
+	  if (e==null){
+		  //a vertex first met on an edge was there all along;
+		  VertexDelta end1 = touch(u, true);
+		  VertexDelta end2 = touch(v, true);
+		  e = new EdgeDelta(end1, end2, u, v, atStart);
+		  end1.attach(e);
+		  if (end2!=end1){
+			  end2.attach(e);
+		  }
+		  edgeTable.insert(exEdge, e);
+		  if (numEdges==edgeList.length){
+			  EdgeDelta[] temp = new EdgeDelta[2*numEdges];
+			  System.arraycopy(edgeList, 0, temp, 0, numEdges);
+			  edgeList = temp;
+		  }
+		  edgeList[numEdges] = e;
+		  numEdges++;
+	  }
+	  return e;
+  }
+
+}
@@ -0,0 +1,22 @@
+/* NeighborConsumer.java */
+
+package graph;
+
+/**
+ * A NeighborConsumer receives the neighbors of a vertex, one at a time, from
+ * WUGraph.forEachNeighbor().
+ */
+
+public interface NeighborConsumer {
+
+  /**
+   * accept() is called once for each edge (vertex, neighbor) incident on the
+   * vertex being visited.  A self-edge is reported once, with the vertex
+   * itself as the neighbor.
+   *
+   * @param neighbor the object at the other end of the edge.
+   * @param weight the weight of the edge.
+   */
+  public void accept(Object neighbor, int weight);
+
+}
@@ -0,0 +1,87 @@
+/* NeighborCursor.java */
+
+package graph;
+import list.*;
+
+/**
+ * A NeighborCursor walks the edges incident on one vertex of a WUGraph without
+ * allocating anything.  WUGraph.neighbors() points a cursor at a vertex; the
+ * same cursor can then be pointed at vertex after vertex.  Typical use:
+ *
+ *   NeighborCursor c = null;
+ *   for (...each vertex v...) {
+ *     c = g.neighbors(v, c);
+ *     while (c.next()) {
+ *       ... c.neighbor() ... c.weight() ...
+ *     }
+ *   }
+ *
+ * The graph must not be changed while a cursor is walking it.
+ */
+
+public class NeighborCursor {
+	DList list;					//the adjacency list being walked;
+	DListNode node;				//the node next() will read;
+	int remaining;				//the number of edges next() has yet to read;
+	Object neighbor;
+	int weight;
+
+  /**
+   * NeighborCursor() constructs a cursor with no edges to visit.  Pass it to
+   * WUGraph.neighbors() to start walking a vertex.
+   */
+  public NeighborCursor(){
+	  remaining = 0;
+  }
+
+  // reset points the cursor at the adjacency list of a vertex (null for none);
+  void reset(DList list){
+	  this.list = list;
+	  if (list==null){
+		  node = null;
+		  remaining = 0;
+	  }else{
+		  node = (DListNode)(list.front());
+		  remaining = list.length();
+	  }
+	  neighbor = null;
+	  weight = 0;
+  }
+
+  /**
+   * next() moves to the next edge, returning false (and leaving the cursor
+   * exhausted) when there are no more.
+   *
+   * Running time:  O(1).
+   */
+  public boolean next(){
+	  if (remaining==0){
+		  return false;
+	  }
+	  try {
+		  Edge edge = (Edge)(node.item());
+		  neighbor = (edge.vertex1==list) ? edge.exV2 : edge.exV1;
+		  weight = edge.weight;
+		  node = (DListNode)(node.next());
+	  }catch (InvalidNodeException e){
+		  e.printStackTrace();
+	  }
+	  remaining--;
+	  return true;
+  }
+
+  /**
+   * neighbor() returns the object at the other end of the current edge.
+   */
+  public Object neighbor(){
+	  return neighbor;
+  }
+
+  /**
+   * weight() returns the weight of the current edge.
+   */
+  public int weight(){
+	  return weight;
+  }
+
+}
@@ -1,6 +1,7 @@
 /* VertexPair.java */
 
 package graph;
+import dict.Hashing;
 
 /**
  * The VertexPair represents a pair of objects that act as vertices in a
@@ -20,18 +21,22 @@ class VertexPair {
   }
 
   /**
-   * hashCode() returns a hashCode equal to the sum of the hashCodes of each
-   * of the two objects of the pair, so that the order of the objects will
-   * not affect the hashCode.  Self-edges are treated differently:  we don't
-   * add an object's hashCode to itself, since the result would always be even.
-   * We add one to the hashCode so that a self-edge will not collide with the
-   * object itself if vertices and edges are stored in the same hash table.
+   * hashCode() returns a hashCode equal to the sum of the mixed hashCodes of
+   * each of the two objects of the pair, so that the order of the objects will
+   * not affect the hashCode.  Each code is scrambled by Hashing.mix() before
+   * the sum; otherwise every pair with the same total (say (1, 4) and (2, 3)
+   * for Integer vertices) would collide.  Self-edges are treated differently:
+   * we don't add an object's hashCode to itself, since the result would always
+   * be even.  We add one to the hashCode so that a self-edge will not collide
+   * with the object itself if vertices and edges are stored in the same hash
+   * table.
    */
   public int hashCode() {
     if (object1.equals(object2)) {
-      return object1.hashCode() + 1;
+      return Hashing.mix(object1.hashCode(), 0) + 1;
     } else {
-      return object1.hashCode() + object2.hashCode();
+      return Hashing.mix(object1.hashCode(), 0) +
+             Hashing.mix(object2.hashCode(), 0);
     }
   }
 
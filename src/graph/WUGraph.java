@@ -10,12 +10,25 @@ import dict.*;
  */
 
 public class WUGraph {
+	private static final int LOG_SLACK = 64;	//log entries allowed past twice the size of the last compacted log;
+
 	DList vertexLst;				//the user-level list of vertex;
 	DList internalVertexLst;		// the list of keys of the hash table;
-	HashTableChained vertices;		//the hash table that restores all the vertices;
-	HashTableChained edges;			// the hash table that restores all the edges;
+	Dictionary vertices;			//the hash table that restores all the vertices;
+	Dictionary edges;				// the hash table that restores all the edges;
 	int numVertices;				//the number of vertices (keep upgraded to reduce the running time)
 	int numEdges;					//the number of edges (keep upgraded to reduce the running time)
+	CsrGraph snapBase;				//the graph the log starts from, shared by snapshots (null until snapshot() is first called);
+	byte[] logOps;					//the append-only log of changes since snapBase (see GraphSnapshot);
+	Object[] logU;
+	Object[] logV;
+	int[] logW;
+	int logSize;
+	int logLimit;					//the log is compacted when it grows to this length;
+	int logGeneration;				//counts compactions, so a snapshot can tell whether its log is still the current one;
+	GraphSnapshot lastSnapshot;		//the last snapshot handed out, whose CsrGraph (once a reader builds it) may become snapBase;
+	GraphListener[] listeners;		//told about every change (null until addListener() is first called);
+	int numListeners;
 
   /**
    * WUGraph() constructs a graph having no vertices or edges.
@@ -31,6 +44,39 @@ public class WUGraph {
 	  numEdges = 0;
   }
 
+  /**
+   * WUGraph() constructs a graph having no vertices or edges, whose tables
+   * are sized up front for roughly expectedVertices vertices and
+   * expectedEdges edges, so that loading a graph of that size never rehashes.
+   *
+   * Running time:  O(expectedVertices + expectedEdges).
+   */
+  public WUGraph(int expectedVertices, int expectedEdges){
+	  vertexLst = new DList();
+	  internalVertexLst = new DList();
+	  vertices = new HashTableChained(Math.max(expectedVertices, 101));
+	  edges = new HashTableChained(Math.max(expectedEdges, 101));
+	  numVertices = 0;
+	  numEdges = 0;
+  }
+
+  /**
+   * WUGraph() constructs a graph having no vertices or edges that keeps its
+   * vertices and edges in the two given (empty) dictionaries.  For instance,
+   * pass two OpenHashTables for a smaller, faster graph than the default
+   * HashTableChained representation gives.
+   *
+   * Running time:  O(1).
+   */
+  public WUGraph(Dictionary vertexTable, Dictionary edgeTable){
+	  vertexLst = new DList();
+	  internalVertexLst = new DList();
+	  vertices = vertexTable;
+	  edges = edgeTable;
+	  numVertices = 0;
+	  numEdges = 0;
+  }
+
   /**
    * vertexCount() returns the number of vertices in the graph.
    *
@@ -85,12 +131,54 @@ public class WUGraph {
    */
   public void addVertex(Object vertex){
 	  if (!this.isVertex(vertex)){				//if the object is vertex, copy;
-		  vertexLst.insertBack(vertex);
-		  DList newVertex = new DList();
-		  internalVertexLst.insertBack(newVertex);
-		  vertices.resize();
-		  vertices.insert(vertex, newVertex);
-		  numVertices++;
+		  grow(vertices);
+		  insertVertex(vertex);
+	  }
+  }
+
+  /**
+   * addVertices() adds every object of "vertexArray" as a vertex, exactly as
+   * repeated calls to addVertex() would.  The vertex table is grown once,
+   * before the first insertion, instead of being checked on every call.
+   *
+   * Running time:  O(n), where n is the length of "vertexArray".
+   */
+  public void addVertices(Object[] vertexArray){
+	  reserve(vertices, numVertices+vertexArray.length);
+	  for (int i=0;i<vertexArray.length;i++){
+		  if (!isVertex(vertexArray[i])){
+			  insertVertex(vertexArray[i]);
+		  }
+	  }
+  }
+
+  // grow gives a HashTableChained the chance to resize before an insert; an OpenHashTable grows by itself;
+  private static void grow(Dictionary table){
+	  if (table instanceof HashTableChained){
+		  ((HashTableChained)table).resize();
+	  }
+  }
+
+  // reserve sizes a table once for the given number of entries;
+  private static void reserve(Dictionary table, int expectedEntries){
+	  if (table instanceof HashTableChained){
+		  ((HashTableChained)table).ensureCapacity(expectedEntries);
+	  }else if (table instanceof OpenHashTable){
+		  ((OpenHashTable)table).ensureCapacity(expectedEntries);
+	  }
+  }
+
+  // insertVertex adds a vertex known to be new, leaving the table size alone;
+  private void insertVertex(Object vertex){
+	  vertexLst.insertBack(vertex);
+	  DList newVertex = new DList();
+	  newVertex.vertexNode = (DListNode)(vertexLst.back());
+	  internalVertexLst.insertBack(newVertex);
+	  vertices.insert(vertex, newVertex);
+	  numVertices++;
+	  log(GraphSnapshot.ADD_VERTEX, vertex, null, 0);
+	  for (int i=0;i<numListeners;i++){
+		  listeners[i].vertexAdded(vertex);
 	  }
   }
 
@@ -102,22 +190,42 @@ public class WUGraph {
    * Running time:  O(d), where d is the degree of "vertex".
    */
   public void removeVertex(Object vertex){
-	  if (isVertex(vertex)){
-		  vertexLst.remove(vertex);
-		  DList inVertex = (DList)(vertices.find(vertex).value());
-		  if (inVertex.length()>0){
-			  removeEdge(vertex);
-		  }
+	  Entry found = vertices.find(vertex);
+	  if (found!=null){
+		  DList inVertex = (DList)(found.value());
 		  try{
+			  while (inVertex.length()>0){
+				  detachEdge((Edge)(inVertex.front().item()));
+			  }
+			  //the adjacency list holds handles to both of its vertex's list nodes, so no list is searched;
+			  inVertex.vertexNode.remove();
 			  inVertex.myNode.remove();
 		  } catch (InvalidNodeException e){
 			  e.printStackTrace();
 		  }
 		  vertices.remove(vertex);
 		  numVertices--;
+		  log(GraphSnapshot.REMOVE_VERTEX, vertex, null, 0);
+		  for (int i=0;i<numListeners;i++){
+			  listeners[i].vertexRemoved(vertex);
+		  }
   	  }
   	}
 
+  // detachEdge removes an edge from both adjacency lists and the edge table;
+  private void detachEdge(Edge edge) throws InvalidNodeException{
+	  edge.myNode1.remove();
+	  if (edge.myNode2!=null){
+		  edge.myNode2.remove();
+	  }
+	  edges.remove(new VertexPair(edge.exV1, edge.exV2));
+	  numEdges--;
+	  log(GraphSnapshot.REMOVE_EDGE, edge.exV1, edge.exV2, 0);
+	  for (int i=0;i<numListeners;i++){
+		  listeners[i].edgeRemoved(edge.exV1, edge.exV2, edge.weight);
+	  }
+  }
+
   /**
    * isVertex() returns true if the parameter "vertex" represents a vertex of
    * the graph.
@@ -168,38 +276,80 @@ public class WUGraph {
    * Running time:  O(d), where d is the degree of "vertex".
    */
   public Neighbors getNeighbors(Object vertex){
-	  if (this.degree(vertex)!=0){
-		  DList inVertex = (DList)(vertices.find(vertex).value());
-		  Object[] neighborList = new Object[degree(vertex)];
-		  int[] weightList = new int[degree(vertex)];
-		  int i = 0;
+	  Entry found = vertices.find(vertex);
+	  if (found==null){
+		  return null;
+	  }
+	  DList inVertex = (DList)(found.value());
+	  int d = inVertex.length();
+	  if (d==0){
+		  return null;
+	  }
+	  Object[] neighborList = new Object[d];
+	  int[] weightList = new int[d];
+	  try{
 		  DListNode cur = (DListNode)(inVertex.front());
-		  try{
-			  while (cur!=null){
-				  Object exV1 = ((Edge)(cur.item())).exV1;
-				  Object exV2 = ((Edge)(cur.item())).exV2;
-				  int weight = ((Edge)(cur.item())).weight;
-				  if (exV1==vertex) {
-					  neighborList[i] = exV2;
-				  }else{
-					  neighborList[i] = exV1;
-				  }
-				  weightList[i] = weight;
-				  i++;
-				  if (cur == (DListNode)(inVertex.back())){
-					  break;
-				  }
-				  cur = (DListNode)(cur.next());
-			  }
-		  }catch(InvalidNodeException e){
-			  e.printStackTrace();
+		  for (int i=0;i<d;i++){
+			  Edge edge = (Edge)(cur.item());
+			  neighborList[i] = (edge.vertex1==inVertex) ? edge.exV2 : edge.exV1;
+			  weightList[i] = edge.weight;
+			  cur = (DListNode)(cur.next());
 		  }
-		  Neighbors myNeighbors = new Neighbors();
-		  myNeighbors.neighborList = neighborList;
-		  myNeighbors.weightList = weightList;
-		  return myNeighbors;
+	  }catch(InvalidNodeException e){
+		  e.printStackTrace();
 	  }
-	  return null;
+	  Neighbors myNeighbors = new Neighbors();
+	  myNeighbors.neighborList = neighborList;
+	  myNeighbors.weightList = weightList;
+	  return myNeighbors;
+  }
+
+  /**
+   * forEachNeighbor() calls c.accept(neighbor, weight) once for every edge
+   * incident on "vertex", in the same order getNeighbors() lists them.
+   * Nothing is allocated.  If "vertex" is not a vertex of the graph, c is
+   * never called.  c must not change the graph.
+   *
+   * Running time:  O(d), where d is the degree of "vertex".
+   */
+  public void forEachNeighbor(Object vertex, NeighborConsumer c){
+	  Entry found = vertices.find(vertex);
+	  if (found==null){
+		  return;
+	  }
+	  DList inVertex = (DList)(found.value());
+	  int d = inVertex.length();
+	  try{
+		  DListNode cur = (DListNode)(inVertex.front());
+		  for (int i=0;i<d;i++){
+			  Edge edge = (Edge)(cur.item());
+			  c.accept((edge.vertex1==inVertex) ? edge.exV2 : edge.exV1, edge.weight);
+			  cur = (DListNode)(cur.next());
+		  }
+	  }catch(InvalidNodeException e){
+		  e.printStackTrace();
+	  }
+  }
+
+  /**
+   * neighbors() points "cursor" at the edges incident on "vertex" and returns
+   * it; if "cursor" is null, a new one is created.  Reusing one cursor across
+   * a traversal walks every adjacency list without allocating.  If "vertex"
+   * is not a vertex of the graph, the cursor has no edges to visit.
+   *
+   * Running time:  O(1).
+   */
+  public NeighborCursor neighbors(Object vertex, NeighborCursor cursor){
+	  if (cursor==null){
+		  cursor = new NeighborCursor();
+	  }
+	  Entry found = vertices.find(vertex);
+	  if (found==null){
+		  cursor.reset(null);
+	  }else{
+		  cursor.reset((DList)(found.value()));
+	  }
+	  return cursor;
   }
 
   /**
@@ -212,25 +362,60 @@ public class WUGraph {
    * Running time:  O(1).
    */
   public void addEdge(Object u, Object v, int weight){
-	  if (!isEdge(u, v)){
-		  if (isVertex(u)&&isVertex(v)){
-			  VertexPair exEdge = new VertexPair(u, v);
-			  DList inU = (DList)(vertices.find(u).value());
-			  DList inV = (DList)(vertices.find(v).value());
-			  Edge newEdge = new Edge(inU, inV, weight, u, v);
-			  if (inV!=inU){
-				  inU.insertBack(newEdge);
-				  inV.insertBack(newEdge);        
-			  }else{
-				  inU.insertBack(newEdge);
+	  grow(edges);
+	  putEdge(u, v, weight);
+  }
+
+  /**
+   * addEdges() adds the edges (us[i], vs[i]) with weights ws[i], exactly as
+   * repeated calls to addEdge() would; later duplicates overwrite the weight
+   * of earlier ones.  The edge table is grown once, before the first
+   * insertion, instead of being checked on every call.
+   *
+   * Running time:  O(n), where n is the length of the arrays.
+   */
+  public void addEdges(Object[] us, Object[] vs, int[] ws){
+	  reserve(edges, numEdges+us.length);
+	  for (int i=0;i<us.length;i++){
+		  putEdge(us[i], vs[i], ws[i]);
+	  }
+  }
+
+  // putEdge inserts or re-weights edge (u, v), looking each vertex up only once, and leaves the table size alone;
+  private void putEdge(Object u, Object v, int weight){
+	  Entry foundU = vertices.find(u);
+	  Entry foundV = vertices.find(v);
+	  if (foundU==null || foundV==null){
+		  return;
+	  }
+	  VertexPair exEdge = new VertexPair(u, v);
+	  Entry found = edges.find(exEdge);
+	  if (found!=null){
+		  Edge edge = (Edge)(found.value());
+		  int oldWeight = edge.weight;
+		  edge.weight = weight;
+		  if (oldWeight!=weight){
+			  log(GraphSnapshot.CHANGE_WEIGHT, u, v, weight);
+			  for (int i=0;i<numListeners;i++){
+				  listeners[i].edgeWeightChanged(edge.exV1, edge.exV2, oldWeight, weight);
 			  }
-			  edges.resize();
-			  edges.insert(exEdge, newEdge);
-			  numEdges++;
-		  }     
+		  }
+		  return;
+	  }
+	  DList inU = (DList)(foundU.value());
+	  DList inV = (DList)(foundV.value());
+	  Edge newEdge = new Edge(inU, inV, weight, u, v);
+	  if (inV!=inU){
+		  inU.insertBack(newEdge);
+		  inV.insertBack(newEdge);
 	  }else{
-		  Edge inEdge = findEdge(u, v);
-		  inEdge.weight=weight;
+		  inU.insertBack(newEdge);
+	  }
+	  edges.insert(exEdge, newEdge);
+	  numEdges++;
+	  log(GraphSnapshot.ADD_EDGE, u, v, weight);
+	  for (int i=0;i<numListeners;i++){
+		  listeners[i].edgeAdded(u, v, weight);
 	  }
   }
 
@@ -243,16 +428,10 @@ public class WUGraph {
    * Running time:  O(1).
    */
   public void removeEdge(Object u, Object v){
-	  if (isEdge(u, v)){
+	  Edge edge = findEdge(u, v);
+	  if (edge!=null){
 		  try {
-			  if (u==v){
-				  findEdge(u, v).myNode1.remove();
-			  }else{
-				  findEdge(u, v).myNode1.remove();
-				  findEdge(u, v).myNode2.remove();
-			  }
-			  edges.remove(new VertexPair(u, v));
-			  numEdges--;
+			  detachEdge(edge);
 		  }catch(InvalidNodeException e){
 			  e.printStackTrace();
 		  }
@@ -306,7 +485,216 @@ public class WUGraph {
 	  return 0;
   }
 
-  
+  /**
+   * freeze() returns an immutable compressed-sparse-row snapshot of the
+   * graph.  Vertex ids follow the order of getVertices().  Later changes to
+   * this WUGraph do not affect the snapshot.  freeze() only reads the graph,
+   * so any number of threads may freeze it at once, as long as none changes
+   * it meanwhile.
+   *
+   * Running time:  O(|V| + |E|).
+   */
+  public CsrGraph freeze(){
+	  int n = numVertices;
+	  Object[] vLst = getVertices();
+	  OpenHashTable index = new OpenHashTable(n);
+	  for (int i=0;i<n;i++){
+		  index.insert(vLst[i], Integer.valueOf(i));
+	  }
+	  //vertexLst and internalVertexLst are kept in the same order, so walk them together;
+	  DList[] adjacency = new DList[n];
+	  int[] offsets = new int[n+1];
+	  try {
+		  DListNode cur = (DListNode)(internalVertexLst.front());
+		  for (int i=0;i<n;i++){
+			  adjacency[i] = (DList)(cur.item());
+			  offsets[i+1] = offsets[i]+adjacency[i].length();
+			  cur = (DListNode)(cur.next());
+		  }
+	  }catch (InvalidNodeException e){
+		  e.printStackTrace();
+	  }
+	  int[] targets = new int[offsets[n]];
+	  int[] weights = new int[offsets[n]];
+	  int[] edgeIds = new int[offsets[n]];
+	  //upper[u+1] counts the edges of u whose other end is lower-numbered;
+	  int[] upper = new int[n+1];
+	  try {
+		  for (int u=0;u<n;u++){
+			  DListNode cur = (DListNode)(adjacency[u].front());
+			  for (int k=offsets[u];k<offsets[u+1];k++){
+				  Edge edge = (Edge)(cur.item());
+				  //the edge keeps the objects given to addEdge(), which may be equal to, but not the same as, vLst[u];
+				  Object other = (edge.vertex1==adjacency[u]) ? edge.exV2 : edge.exV1;
+				  int t = ((Integer)(index.get(other))).intValue();
+				  if (t<u){
+					  upper[u+1]++;
+				  }
+				  targets[k] = t;
+				  weights[k] = edge.weight;
+				  cur = (DListNode)(cur.next());
+			  }
+		  }
+	  }catch (InvalidNodeException e){
+		  e.printStackTrace();
+	  }
+	  for (int u=0;u<n;u++){
+		  upper[u+1] += upper[u];
+	  }
+	  //an edge is numbered at its lower end, which passes (lower end, id) to the upper end's
+	  //bucket; buckets fill in vertex order, so each is complete before its vertex is reached;
+	  int[] fromLower = new int[upper[n]];
+	  int[] idFromLower = new int[upper[n]];
+	  int[] filled = new int[n];
+	  int[] idOf = new int[n];		//per lower end:  its edge to the vertex being numbered;
+	  int nextId = 0;
+	  for (int u=0;u<n;u++){
+		  for (int b=upper[u];b<upper[u]+filled[u];b++){
+			  idOf[fromLower[b]] = idFromLower[b];
+		  }
+		  for (int k=offsets[u];k<offsets[u+1];k++){
+			  int t = targets[k];
+			  if (t<u){
+				  edgeIds[k] = idOf[t];
+			  }else{
+				  edgeIds[k] = nextId;
+				  if (t>u){
+					  int b = upper[t]+filled[t];
+					  fromLower[b] = u;
+					  idFromLower[b] = nextId;
+					  filled[t]++;
+				  }
+				  nextId++;
+			  }
+		  }
+	  }
+	  return new CsrGraph(vLst, offsets, targets, weights, edgeIds, nextId, index);
+  }
+
+  /**
+   * snapshot() returns an immutable, point-in-time view of the graph that
+   * stays valid, and unchanged, however this WUGraph changes afterward.  A
+   * long-running algorithm can read the snapshot, even on another thread,
+   * while this graph keeps being updated.
+   *
+   * No copy is made.  The snapshot shares a CsrGraph of an earlier state of
+   * the graph and a prefix of the log of changes made since; see
+   * GraphSnapshot.  Only the first call freezes the graph.  After that, once
+   * a reader has built the CsrGraph of the previous snapshot, that CsrGraph
+   * becomes the base for new snapshots and the log restarts from it, so the
+   * freezing is done by readers, not by this graph's writer.
+   *
+   * snapshot() itself must be called by the thread that changes the graph
+   * (or under the same lock); the snapshot it returns may be read anywhere.
+   *
+   * Running time:  O(|V| + |E|) for the first call; O(1) amortized after.
+   */
+  public GraphSnapshot snapshot(){
+	  if (snapBase==null){
+		  snapBase = freeze();
+		  logOps = new byte[16];
+		  logU = new Object[16];
+		  logV = new Object[16];
+		  logW = new int[16];
+		  logSize = 0;
+		  logLimit = LOG_SLACK;
+	  }else if (lastSnapshot!=null && lastSnapshot.generation==logGeneration &&
+				lastSnapshot.built()!=null && lastSnapshot.built()!=snapBase){
+		  compact();
+	  }
+	  lastSnapshot = new GraphSnapshot(snapBase, logOps, logU, logV, logW, logSize,
+	                                   logGeneration, numVertices, numEdges);
+	  return lastSnapshot;
+  }
+
+  /**
+   * addListener() adds a GraphListener that will be told about every later
+   * change to the graph, after the change is made.  Listeners are called in
+   * the order they were added.
+   *
+   * Running time:  O(1) amortized.
+   */
+  public void addListener(GraphListener listener){
+	  if (listeners==null){
+		  listeners = new GraphListener[2];
+	  }else if (numListeners==listeners.length){
+		  GraphListener[] temp = new GraphListener[2*numListeners];
+		  System.arraycopy(listeners, 0, temp, 0, numListeners);
+		  listeners = temp;
+	  }
+	  listeners[numListeners] = listener;
+	  numListeners++;
+  }
+
+  /**
+   * removeListener() removes a GraphListener added by addListener().  If it
+   * was never added, nothing changes.
+   *
+   * Running time:  O(l), where l is the number of listeners.
+   */
+  public void removeListener(GraphListener listener){
+	  for (int i=0;i<numListeners;i++){
+		  if (listeners[i]==listener){
+			  System.arraycopy(listeners, i+1, listeners, i, numListeners-i-1);
+			  numListeners--;
+			  listeners[numListeners] = null;
+			  return;
+		  }
+	  }
+  }
+
+  // log appends a change to the snapshot log; entries already written are never touched again;
+  private void log(byte op, Object u, Object v, int weight){
+	  if (snapBase==null){
+		  return;
+	  }
+	  if (logSize==logOps.length){
+		  //grow by copying into new arrays, so snapshots holding the old ones are undisturbed;
+		  byte[] ops = new byte[2*logSize];
+		  Object[] us = new Object[2*logSize];
+		  Object[] vs = new Object[2*logSize];
+		  int[] ws = new int[2*logSize];
+		  System.arraycopy(logOps, 0, ops, 0, logSize);
+		  System.arraycopy(logU, 0, us, 0, logSize);
+		  System.arraycopy(logV, 0, vs, 0, logSize);
+		  System.arraycopy(logW, 0, ws, 0, logSize);
+		  logOps = ops;
+		  logU = us;
+		  logV = vs;
+		  logW = ws;
+	  }
+	  logOps[logSize] = op;
+	  logU[logSize] = u;
+	  logV[logSize] = v;
+	  logW[logSize] = weight;
+	  logSize++;
+	  if (logSize>=logLimit){
+		  compact();
+	  }
+  }
+
+  // compact rewrites the log as its net change in fresh arrays, restarting it from the newest CsrGraph a reader has built;
+  private void compact(){
+	  int from = 0;
+	  if (lastSnapshot!=null && lastSnapshot.generation==logGeneration && lastSnapshot.built()!=null){
+		  //the snapshot's CsrGraph already has the log applied up to lastSnapshot.logSize;
+		  snapBase = lastSnapshot.built();
+		  from = lastSnapshot.logSize;
+	  }
+	  lastSnapshot = null;
+	  LogDelta delta = new LogDelta(logOps, logU, logV, logW, from, logSize);
+	  int size = delta.write(null, null, null, null);
+	  int capacity = Math.max(16, 2*size);
+	  logOps = new byte[capacity];
+	  logU = new Object[capacity];
+	  logV = new Object[capacity];
+	  logW = new int[capacity];
+	  logSize = delta.write(logOps, logU, logV, logW);
+	  logGeneration++;
+	  //the next compaction waits until the log has doubled, so each entry is rewritten O(1) times amortized;
+	  logLimit = 2*logSize+LOG_SLACK;
+  }
+
   // findEdge is to make a new Edge object know (u, v);
   public Edge findEdge(Object u, Object v){
 	  if (isEdge(u,v)){
@@ -0,0 +1,307 @@
+/* Boruvka.java */
+
+package graphalg;
+
+import graph.*;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The Boruvka class computes minimum spanning trees with Boruvka's algorithm,
+ * running the work of each round in parallel on a ForkJoinPool.
+ *
+ * Every round finds the cheapest edge leaving each component, hooks each
+ * component to the component across that edge, and contracts the resulting
+ * trees into single components, until no edge leaves any component.  Edges
+ * are compared as packed (weight, edge id) longs, the same order Kruskal
+ * uses, so all edges are distinct, the minimum spanning forest is unique, and
+ * the result is the same forest Kruskal.minSpanTree() returns.
+ *
+ * The scans over edges and vertices, which are nearly all of the work, are
+ * split among the pool's threads.  The per-component bookkeeping after each
+ * round is sequential and visits every component, including ones with no
+ * edge left to leave by, which never merge again.  When every component
+ * still has such an edge, as in a connected graph, the number of components
+ * at least halves every round and the bookkeeping adds up to O(|V|); in
+ * general it is O(|V|) per round, O(|V| log |V|) in all.
+ */
+
+public class Boruvka {
+	private static final int GRAIN = 1<<13;		//smallest range a task splits;
+	private static final long NONE = Long.MAX_VALUE;
+
+	// the kinds of parallel step, each a loop over a range of indices;
+	private static final int CHEAPEST = 0;		//over active edges;
+	private static final int HOOK = 1;			//over components;
+	private static final int JUMP = 2;			//over components;
+	private static final int RELABEL = 3;		//over vertices;
+	private static final int COUNT = 4;			//over chunks of active edges;
+	private static final int COMPACT = 5;		//over chunks of active edges;
+
+	private final EdgeList edges;
+	private final int[] comp;				//component of each vertex;
+	private int[] active;					//edges that may still join two components;
+	private int[] scan;						//the active edges before a COMPACT step;
+	private int activeSize;
+	private int numComp;
+	private final AtomicLongArray best;		//cheapest key leaving each component;
+	private int[] parent;					//component each component hooks to;
+	private int[] next;
+	private final int[] hookEdge;			//edge each component hooked along, or -1;
+	private final int[] label;
+	private int chunkSize;
+	private int[] chunkCount;
+	private boolean changed;
+
+	private Boruvka(CsrGraph g){
+		int n = g.vertexCount();
+		edges = EdgeList.of(g);
+		comp = new int[n];
+		for (int i=0;i<n;i++){
+			comp[i] = i;
+		}
+		active = new int[edges.size];
+		for (int e=0;e<edges.size;e++){
+			active[e] = e;
+		}
+		activeSize = edges.size;
+		numComp = n;
+		best = new AtomicLongArray(n);
+		parent = new int[n];
+		next = new int[n];
+		hookEdge = new int[n];
+		label = new int[n];
+	}
+
+  /**
+   * minSpanTree() returns a WUGraph that represents the minimum spanning tree
+   * of the WUGraph g, computed on the common ForkJoinPool.  The original
+   * WUGraph g is NOT changed.
+   *
+   * @param g The weighted, undirected graph whose MST we want to compute.
+   * @return A newly constructed WUGraph representing the MST of g.
+   */
+	public static WUGraph minSpanTree(WUGraph g){
+		return minSpanTree(g.freeze(), ForkJoinPool.commonPool());
+	}
+
+  /**
+   * minSpanForest() returns the minimum spanning forest of the WUGraph g as
+   * an MstResult, computed on the common ForkJoinPool, without building a
+   * WUGraph for it.  The original WUGraph g is NOT changed.
+   *
+   * @param g The weighted, undirected graph whose MST we want to compute.
+   * @return The minimum spanning forest of g.
+   */
+	public static MstResult minSpanForest(WUGraph g){
+		return minSpanForest(g.freeze(), ForkJoinPool.commonPool());
+	}
+
+  /**
+   * minSpanTree() returns a WUGraph that represents the minimum spanning tree
+   * of the snapshot g, computed on the ForkJoinPool "pool".
+   *
+   * Running time:  O((|V| + |E|) log |V|) work, in O(log |V|) rounds.
+   *
+   * @param g The snapshot whose MST we want to compute.
+   * @param pool The pool to run the rounds on.
+   * @return A newly constructed WUGraph representing the MST of g.
+   */
+	public static WUGraph minSpanTree(CsrGraph g, ForkJoinPool pool){
+		return minSpanForest(g, pool).toGraph();
+	}
+
+  /**
+   * minSpanForest() returns the minimum spanning forest of the snapshot g as
+   * an MstResult, computed as minSpanTree() computes it.
+   *
+   * @param g The snapshot whose MST we want to compute.
+   * @param pool The pool to run the rounds on.
+   * @return The minimum spanning forest of g.
+   */
+	public static MstResult minSpanForest(CsrGraph g, ForkJoinPool pool){
+		Boruvka b = new Boruvka(g);
+		int[] chosen = new int[Math.max(g.vertexCount()-1, 0)];
+		int count = 0;
+		while (b.activeSize>0){
+			count = b.round(pool, chosen, count);
+		}
+		// add the edges in the order Kruskal would, so the two trees match exactly;
+		long[] keys = new long[count];
+		for (int i=0;i<count;i++){
+			keys[i] = b.key(chosen[i]);
+		}
+		Arrays.sort(keys);
+		for (int i=0;i<count;i++){
+			chosen[i] = (int)keys[i];
+		}
+		return new MstResult(g, b.edges, chosen, count);
+	}
+
+	// round runs one Boruvka round, appending the edges it chooses to chosen[];
+	private int round(ForkJoinPool pool, int[] chosen, int count){
+		for (int c=0;c<numComp;c++){
+			best.set(c, NONE);
+		}
+		pool.invoke(new Step(CHEAPEST, 0, activeSize));
+		pool.invoke(new Step(HOOK, 0, numComp));
+		do {
+			changed = false;
+			pool.invoke(new Step(JUMP, 0, numComp));
+			int[] temp = parent;
+			parent = next;
+			next = temp;
+		} while (changed);
+
+		// number the new components and collect the hooked edges;
+		int newComp = 0;
+		for (int c=0;c<numComp;c++){
+			if (parent[c]==c){
+				label[c] = newComp;
+				newComp++;
+			}
+			if (hookEdge[c]>=0){
+				chosen[count] = hookEdge[c];
+				count++;
+			}
+		}
+		for (int c=0;c<numComp;c++){
+			label[c] = label[parent[c]];
+		}
+		numComp = newComp;
+		pool.invoke(new Step(RELABEL, 0, comp.length));
+
+		// drop the edges that now lie inside a component;
+		int chunks = Math.max(1, Math.min(pool.getParallelism()*4, activeSize/GRAIN));
+		chunkSize = (activeSize+chunks-1)/chunks;
+		chunkCount = new int[chunks+1];
+		pool.invoke(new Step(COUNT, 0, chunks));
+		for (int i=0;i<chunks;i++){
+			chunkCount[i+1] += chunkCount[i];
+		}
+		scan = active;
+		active = new int[chunkCount[chunks]];
+		pool.invoke(new Step(COMPACT, 0, chunks));
+		scan = null;
+		activeSize = chunkCount[chunks];
+		return count;
+	}
+
+	// key returns the packed (weight, edge id) key of edge e;
+	private long key(int e){
+		return ((long)edges.w[e]<<32) | e;
+	}
+
+	// minInto lowers best[c] to k unless it is already lower;
+	private void minInto(int c, long k){
+		long cur = best.get(c);
+		while (k<cur && !best.compareAndSet(c, cur, k)){
+			cur = best.get(c);
+		}
+	}
+
+	// run does the work of step "kind" for indices lo...hi-1;
+	private void run(int kind, int lo, int hi){
+		switch (kind){
+		case CHEAPEST:
+			for (int i=lo;i<hi;i++){
+				int e = active[i];
+				int cu = comp[edges.u[e]];
+				int cv = comp[edges.v[e]];
+				if (cu!=cv){
+					long k = key(e);
+					minInto(cu, k);
+					minInto(cv, k);
+				}
+			}
+			break;
+		case HOOK:
+			for (int c=lo;c<hi;c++){
+				long k = best.get(c);
+				parent[c] = c;
+				hookEdge[c] = -1;
+				if (k!=NONE){
+					int e = (int)k;
+					int other = comp[edges.u[e]];
+					if (other==c){
+						other = comp[edges.v[e]];
+					}
+					// two components that chose the same edge form a 2-cycle; the smaller is the root;
+					if (best.get(other)!=k || other<c){
+						parent[c] = other;
+						hookEdge[c] = e;
+					}
+				}
+			}
+			break;
+		case JUMP:
+			boolean moved = false;
+			for (int c=lo;c<hi;c++){
+				next[c] = parent[parent[c]];
+				if (next[c]!=parent[c]){
+					moved = true;
+				}
+			}
+			if (moved){
+				changed = true;
+			}
+			break;
+		case RELABEL:
+			for (int v=lo;v<hi;v++){
+				comp[v] = label[comp[v]];
+			}
+			break;
+		case COUNT:
+			for (int chunk=lo;chunk<hi;chunk++){
+				int kept = 0;
+				int end = Math.min(activeSize, (chunk+1)*chunkSize);
+				for (int i=chunk*chunkSize;i<end;i++){
+					int e = active[i];
+					if (comp[edges.u[e]]!=comp[edges.v[e]]){
+						kept++;
+					}
+				}
+				chunkCount[chunk+1] = kept;
+			}
+			break;
+		default:
+			for (int chunk=lo;chunk<hi;chunk++){
+				int out = chunkCount[chunk];
+				int end = Math.min(activeSize, (chunk+1)*chunkSize);
+				for (int i=chunk*chunkSize;i<end;i++){
+					int e = scan[i];
+					if (comp[edges.u[e]]!=comp[edges.v[e]]){
+						active[out] = e;
+						out++;
+					}
+				}
+			}
+		}
+	}
+
+	// a Step runs one kind of step over a range, splitting it among the pool's threads;
+	private class Step extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int kind;
+		private final int lo;
+		private final int hi;
+
+		Step(int kind, int lo, int hi){
+			this.kind = kind;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		protected void compute(){
+			int grain = (kind==COUNT || kind==COMPACT) ? 1 : GRAIN;
+			if (hi-lo<=grain){
+				run(kind, lo, hi);
+			} else {
+				int mid = (lo+hi)>>>1;
+				invokeAll(new Step(kind, lo, mid), new Step(kind, mid, hi));
+			}
+		}
+	}
+}
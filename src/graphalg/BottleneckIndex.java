@@ -0,0 +1,232 @@
+/* BottleneckIndex.java */
+
+package graphalg;
+
+import graph.*;
+import set.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A BottleneckIndex answers minimax-path queries:  the weight of the
+ * heaviest edge on the path between two vertices in the minimum spanning
+ * forest, which is also the smallest possible weight of the heaviest edge on
+ * any path between them in the graph.
+ *
+ * The index is a Kruskal reconstruction tree.  Its leaves are the vertices;
+ * each time Kruskal's algorithm joins two trees with an edge, a new node of
+ * that edge's weight becomes the parent of the two trees' topmost nodes.
+ * The heaviest edge between u and v is then the node at which their trees
+ * were first joined, which is their lowest common ancestor.  The tree is cut
+ * into heavy paths, each node continuing the path of its larger child, so
+ * any path to the root crosses O(log |V|) of them and the lowest common
+ * ancestor is found by hopping from path to path.  The index takes O(|V|)
+ * time and space to build, instead of the O(|V|^2) of a search from every
+ * vertex.
+ *
+ * The index is a snapshot; later changes to the graph are not seen.  Its
+ * queries change nothing, so any number of threads may ask them at once.
+ */
+
+public class BottleneckIndex {
+	private static final int GRAIN = 1<<12;		//smallest batch of queries a task splits;
+
+	private final CsrGraph g;
+	private final int n;				//vertices are the nodes 0...n-1; edge i is node n+i;
+	private final int[] weight;			//the weight of each edge node, less n;
+	private final int[] component;		//per vertex:  its tree in the forest;
+	private final int[] parent;			//per node:  its parent, or -1 for a root;
+	private final int[] depth;			//per node:  its distance from the root of its tree;
+	private final int[] head;			//per node:  the topmost node of its heavy path;
+
+  /**
+   * BottleneckIndex() builds the index of the WUGraph g.  The original
+   * WUGraph g is NOT changed.
+   *
+   * Running time:  O(|V| + |E|), plus Kruskal's algorithm.
+   */
+	public BottleneckIndex(WUGraph g){
+		this(Kruskal.minSpanForest(g));
+	}
+
+  /**
+   * BottleneckIndex() builds the index of the snapshot g.
+   *
+   * Running time:  O(|V| + |E|), plus Kruskal's algorithm.
+   */
+	public BottleneckIndex(CsrGraph g){
+		this(Kruskal.minSpanForest(g));
+	}
+
+  /**
+   * BottleneckIndex() builds the index from an already computed minimum
+   * spanning forest, whose edges must be in the order Kruskal's algorithm
+   * chose them, as every engine returns them.
+   *
+   * Running time:  O(|V| a(|V|)).
+   */
+	public BottleneckIndex(MstResult forest){
+		g = forest.snapshot();
+		n = g.vertexCount();
+		int edges = forest.edgeCount();
+		int[] u = forest.edgeU();
+		int[] v = forest.edgeV();
+		weight = new int[edges];
+		System.arraycopy(forest.weights(), 0, weight, 0, edges);
+		int nodes = n+edges;
+		// join the trees in Kruskal's order; top[] is the topmost node of each set's tree;
+		parent = new int[nodes];
+		int[] size = new int[nodes];		//per node:  the number of nodes in its subtree;
+		int[] top = new int[n];
+		DisjointSets sets = new DisjointSets(n);
+		for (int x=0;x<n;x++){
+			top[x] = x;
+			size[x] = 1;
+		}
+		for (int i=0;i<edges;i++){
+			int root1 = sets.find(u[i]);
+			int root2 = sets.find(v[i]);
+			int node = n+i;
+			parent[top[root1]] = node;
+			parent[top[root2]] = node;
+			size[node] = size[top[root1]]+size[top[root2]]+1;
+			sets.union(root1, root2);
+			top[sets.find(root1)] = node;
+		}
+		component = new int[n];
+		for (int x=0;x<n;x++){
+			component[x] = sets.find(x);
+		}
+		for (int x=0;x<n;x++){
+			parent[top[component[x]]] = -1;
+		}
+		// a parent is always created after its children, so fill in from the top down;
+		// a node continues its parent's heavy path if it holds more than half of its subtree;
+		depth = new int[nodes];
+		head = new int[nodes];
+		for (int x=nodes-1;x>=0;x--){
+			int p = parent[x];
+			if (p<0){
+				head[x] = x;
+			} else {
+				depth[x] = depth[p]+1;
+				head[x] = (2*size[x]>=size[p]) ? head[p] : x;
+			}
+		}
+	}
+
+  /**
+   * maxEdgeOnPath() returns the weight of the heaviest edge on the path from
+   * vertex u to vertex v in the minimum spanning forest.  If u and v are the
+   * same vertex, it returns Integer.MIN_VALUE, since the path has no edges;
+   * if they are not connected, or either is not a vertex, it returns
+   * Integer.MAX_VALUE.
+   *
+   * Running time:  O(log |V|).
+   */
+	public int maxEdgeOnPath(Object u, Object v){
+		int a = g.indexOf(u);
+		int b = g.indexOf(v);
+		if (a<0 || b<0){
+			return Integer.MAX_VALUE;
+		}
+		return maxEdgeOnPath(a, b);
+	}
+
+  /**
+   * maxEdgeOnPath() returns the weight of the heaviest edge on the path
+   * between the vertices of ids u and v, as maxEdgeOnPath(Object, Object)
+   * does.
+   *
+   * Running time:  O(log |V|).
+   */
+	public int maxEdgeOnPath(int u, int v){
+		if (u==v){
+			return Integer.MIN_VALUE;
+		}
+		if (component[u]!=component[v]){
+			return Integer.MAX_VALUE;
+		}
+		// climb from whichever path starts deeper until both are on one path;
+		while (head[u]!=head[v]){
+			if (depth[head[u]]>depth[head[v]]){
+				u = parent[head[u]];
+			} else {
+				v = parent[head[v]];
+			}
+		}
+		if (depth[v]<depth[u]){
+			u = v;
+		}
+		return weight[u-n];
+	}
+
+  /**
+   * maxEdgeOnPaths() answers a batch of queries:  entry i of the result is
+   * maxEdgeOnPath(us[i], vs[i]).
+   *
+   * Running time:  O(q log |V|) for q queries.
+   */
+	public int[] maxEdgeOnPaths(Object[] us, Object[] vs){
+		int[] answers = new int[us.length];
+		for (int i=0;i<us.length;i++){
+			answers[i] = maxEdgeOnPath(us[i], vs[i]);
+		}
+		return answers;
+	}
+
+  /**
+   * maxEdgeOnPaths() answers a batch of queries by vertex id:  entry i of
+   * the result is maxEdgeOnPath(us[i], vs[i]).
+   *
+   * Running time:  O(q log |V|) for q queries.
+   */
+	public int[] maxEdgeOnPaths(int[] us, int[] vs){
+		int[] answers = new int[us.length];
+		for (int i=0;i<us.length;i++){
+			answers[i] = maxEdgeOnPath(us[i], vs[i]);
+		}
+		return answers;
+	}
+
+  /**
+   * maxEdgeOnPaths() answers a batch of queries by vertex id, split among
+   * the threads of "pool".
+   *
+   * Running time:  O(q log |V|) work for q queries.
+   */
+	public int[] maxEdgeOnPaths(int[] us, int[] vs, ForkJoinPool pool){
+		int[] answers = new int[us.length];
+		pool.invoke(new Batch(us, vs, answers, 0, us.length));
+		return answers;
+	}
+
+	// a Batch answers queries lo...hi-1, splitting them in half while they are many;
+	private class Batch extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int[] us;
+		private final int[] vs;
+		private final int[] answers;
+		private final int lo;
+		private final int hi;
+
+		Batch(int[] us, int[] vs, int[] answers, int lo, int hi){
+			this.us = us;
+			this.vs = vs;
+			this.answers = answers;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		protected void compute(){
+			if (hi-lo<=GRAIN){
+				for (int i=lo;i<hi;i++){
+					answers[i] = maxEdgeOnPath(us[i], vs[i]);
+				}
+			} else {
+				int mid = (lo+hi)>>>1;
+				invokeAll(new Batch(us, vs, answers, lo, mid), new Batch(us, vs, answers, mid, hi));
+			}
+		}
+	}
+}
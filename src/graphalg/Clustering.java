@@ -0,0 +1,69 @@
+/* Clustering.java */
+
+package graphalg;
+
+import graph.*;
+import set.*;
+
+/**
+ * The Clustering class splits the vertices of a graph into clusters.
+ * singleLinkage() runs Kruskal's algorithm and stops it when k trees are
+ * left, which is the same as cutting the k-1 heaviest edges out of the
+ * minimum spanning tree, but never builds the tree:  the clusters are read
+ * straight out of the disjoint sets.
+ */
+
+public class Clustering {
+
+  /**
+   * singleLinkage() returns the single-linkage clustering of the WUGraph g
+   * into k clusters, as the cluster label of every vertex in the order
+   * g.getVertices() lists them.  See singleLinkage(CsrGraph, int).  The
+   * original WUGraph g is NOT changed.
+   */
+	public static int[] singleLinkage(WUGraph g, int k){
+		return singleLinkage(g.freeze(), k);
+	}
+
+  /**
+   * singleLinkage() returns the single-linkage clustering of the snapshot g
+   * into k clusters:  the edges are taken in order of weight, ties broken by
+   * edge id, and each one that joins two clusters merges them, until only k
+   * are left.  Clusters are numbered 0, 1, 2, ... in the order of their
+   * lowest vertex id.  If g has more than k connected components, each
+   * component is a cluster, and there are more than k; if it has fewer than
+   * k vertices, each vertex is a cluster.
+   *
+   * Running time:  O(|V| + |E| a(|V|)), with the edges ordered by EdgeSort.
+   *
+   * @param g The snapshot whose vertices we want to cluster.
+   * @param k The number of clusters wanted; at least 1.
+   * @return The cluster label of each vertex id.
+   */
+	public static int[] singleLinkage(CsrGraph g, int k){
+		if (k<1){
+			throw new IllegalArgumentException("cluster count must be at least 1: " + k);
+		}
+		int n = g.vertexCount();
+		DisjointSets sets = new DisjointSets(n);
+		int clusters = n;
+		if (clusters>k){
+			EdgeList edges = EdgeList.of(g);
+			int[] order = EdgeSort.order(edges);
+			for (int i=0;i<order.length && clusters>k;i++){
+				int e = order[i];
+				int root1 = sets.find(edges.u[e]);
+				int root2 = sets.find(edges.v[e]);
+				if (root1!=root2){
+					sets.union(root1, root2);
+					clusters--;
+				}
+			}
+		}
+		int[] label = new int[n];
+		for (int i=0;i<n;i++){
+			label[i] = sets.find(i);
+		}
+		return Connectivity.number(label);
+	}
+}
@@ -0,0 +1,116 @@
+/* Connectivity.java */
+
+package graphalg;
+
+import graph.*;
+import set.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The Connectivity class finds the connected components of a graph in
+ * parallel.  The edges of a CsrGraph are split among the threads of a
+ * ForkJoinPool, and every thread unites the ends of its edges in one shared
+ * ConcurrentDisjointSets.
+ */
+
+public class Connectivity {
+	private static final int GRAIN = 1<<13;		//smallest range of vertices a task splits;
+
+  /**
+   * components() returns the component of every vertex of the WUGraph g, in
+   * the order g.getVertices() lists them, computed on the common
+   * ForkJoinPool.  See components(CsrGraph, ForkJoinPool).
+   */
+	public static int[] components(WUGraph g){
+		return components(g.freeze(), ForkJoinPool.commonPool());
+	}
+
+  /**
+   * components() returns an array holding the component of each vertex id
+   * of the snapshot g.  Components are numbered 0, 1, 2, ... in the order of
+   * their lowest vertex id, so the number of components is one more than the
+   * last label, and two vertices have the same label exactly when they are
+   * connected.
+   *
+   * Running time:  O((|V| + |E|) a(|V|)) work, split among the pool's threads.
+   *
+   * @param g The snapshot whose components we want.
+   * @param pool The pool to run on.
+   * @return The component label of each vertex id.
+   */
+	public static int[] components(CsrGraph g, ForkJoinPool pool){
+		int n = g.vertexCount();
+		ConcurrentDisjointSets sets = new ConcurrentDisjointSets(n);
+		int[] label = new int[n];
+		pool.invoke(new Pass(g, sets, label, true, 0, n));
+		// once every edge is in, record the final root of every vertex;
+		pool.invoke(new Pass(g, sets, label, false, 0, n));
+		return number(label);
+	}
+
+  /**
+   * number() replaces the root of each vertex id in "root" with a label, the
+   * roots being numbered 0, 1, 2, ... in the order their lowest vertex ids
+   * appear, and returns the array.  Every root must be a vertex id.
+   *
+   * Running time:  O(|V|).
+   */
+	static int[] number(int[] root){
+		int n = root.length;
+		int[] number = new int[n];
+		for (int i=0;i<n;i++){
+			number[i] = -1;
+		}
+		int count = 0;
+		for (int i=0;i<n;i++){
+			if (number[root[i]]<0){
+				number[root[i]] = count;
+				count++;
+			}
+			root[i] = number[root[i]];
+		}
+		return root;
+	}
+
+	// a Pass either unites the ends of the edges of vertices lo...hi-1 or records their roots;
+	private static class Pass extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final CsrGraph g;
+		private final ConcurrentDisjointSets sets;
+		private final int[] root;
+		private final boolean unite;
+		private final int lo;
+		private final int hi;
+
+		Pass(CsrGraph g, ConcurrentDisjointSets sets, int[] root, boolean unite, int lo, int hi){
+			this.g = g;
+			this.sets = sets;
+			this.root = root;
+			this.unite = unite;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		protected void compute(){
+			if (hi-lo>GRAIN){
+				int mid = (lo+hi)>>>1;
+				invokeAll(new Pass(g, sets, root, unite, lo, mid), new Pass(g, sets, root, unite, mid, hi));
+			} else if (unite){
+				int[] offsets = g.offsets();
+				int[] targets = g.targets();
+				for (int v=lo;v<hi;v++){
+					for (int k=offsets[v];k<offsets[v+1];k++){
+						if (targets[k]>v){
+							sets.union(v, targets[k]);
+						}
+					}
+				}
+			} else {
+				for (int v=lo;v<hi;v++){
+					root[v] = sets.find(v);
+				}
+			}
+		}
+	}
+}
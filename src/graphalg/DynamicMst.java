@@ -0,0 +1,413 @@
+/* DynamicMst.java */
+
+package graphalg;
+
+import dict.*;
+import graph.*;
+
+/**
+ * A DynamicMst keeps the minimum spanning forest of a WUGraph up to date as
+ * the graph changes, instead of rerunning Kruskal after every change.  It
+ * registers itself as a GraphListener of the graph and follows insertions,
+ * removals, and weight changes of edges and vertices.
+ *
+ * The forest is held in a LinkCutTree in which every tree edge is a node of
+ * its own, between the nodes of its endpoints.  The other edges wait in a
+ * LongTreap ordered by weight.
+ *
+ * When an edge (u, v) is added, the heaviest edge on the tree path from u to
+ * v is found; if the new edge is lighter, that edge leaves the forest and the
+ * new one joins it, and if u and v were not connected, the new edge simply
+ * joins it.  This costs O(log |V|) amortized.  A weight decrease is handled
+ * the same way.
+ *
+ * When a forest edge is removed, or its weight raised, it is cut out, which
+ * splits its tree in two.  The new forest is the old one less that edge plus
+ * the lightest waiting edge between the two halves, if there is one; every
+ * waiting edge has both ends in one tree, so such an edge is exactly one that
+ * leaves the smaller half.  Two searches grow the halves along forest edges
+ * in step, so the larger half is never explored further than the smaller
+ * one, and the waiting edges met on the smaller half's vertices give the
+ * replacement.  A cut costs O(s + d + log |V|), where s is the sum of the
+ * degrees of the smaller half's vertices and d the largest degree met:  a
+ * leaf cut loose, which is most cuts that disconnect a sparse graph, costs
+ * only its own degree.  Removing, or reweighting, an edge outside the forest
+ * costs O(log |E|).
+ *
+ * Edges are compared by weight and then by an internal edge number, so there
+ * is always a single minimum spanning forest; when weights tie, it may pick
+ * different edges than Kruskal.minSpanTree(), but its total weight is the
+ * same.
+ */
+
+public class DynamicMst implements GraphListener {
+	private static final long VERTEX_KEY = Long.MIN_VALUE;	//lighter than every edge;
+
+	private final WUGraph graph;
+	private final OpenHashTable nodes;		//maps each vertex to its LinkCutTree node;
+	private final IntWUGraph edges;		//the graph by vertex node; an edge's weight is its edge node;
+	private final LinkCutTree forest;
+	private final LongTreap spare;			//edge nodes outside the forest, except self-edges;
+
+	// per edge node:  its endpoints' vertex nodes, and whether it is in the forest;
+	private int[] edgeU;
+	private int[] edgeV;
+	private boolean[] inForest;
+	private boolean[] inSpare;
+	private Object[] vertexOf;				//per vertex node:  the vertex it stands for;
+	private int[] mark;						//per vertex node:  the number of the last half search that reached it;
+	private int searches;					//numbers the half searches, two per cut;
+
+	// scratch for the two half searches of a cut:  the vertices reached, and the waiting edges met;
+	private int[][] reached;
+	private int[][] met;
+
+	private long totalWeight;
+	private int forestEdges;
+
+  /**
+   * DynamicMst() computes the minimum spanning forest of g and keeps it up
+   * to date through every later change to g.
+   *
+   * Running time:  O(|V| + |E| log |V|).
+   */
+	public DynamicMst(WUGraph g){
+		graph = g;
+		nodes = new OpenHashTable();
+		edges = new IntWUGraph();
+		edgeU = new int[16];
+		edgeV = new int[16];
+		inForest = new boolean[16];
+		inSpare = new boolean[16];
+		vertexOf = new Object[16];
+		mark = new int[16];
+		reached = new int[][] {new int[16], new int[16]};
+		met = new int[][] {new int[16], new int[16]};
+		forest = new LinkCutTree();
+		spare = new LongTreap();
+		Object[] vertices = g.getVertices();
+		for (int i=0;i<vertices.length;i++){
+			vertexAdded(vertices[i]);
+		}
+		for (int i=0;i<vertices.length;i++){
+			Neighbors neighbors = g.getNeighbors(vertices[i]);
+			if (neighbors!=null){
+				for (int j=0;j<neighbors.neighborList.length;j++){
+					edgeAdded(vertices[i], neighbors.neighborList[j], neighbors.weightList[j]);
+				}
+			}
+		}
+		g.addListener(this);
+	}
+
+  /**
+   * close() stops following the graph.  The forest stays as it was.
+   */
+	public void close(){
+		graph.removeListener(this);
+	}
+
+  /**
+   * totalWeight() returns the total weight of the minimum spanning forest.
+   *
+   * Running time:  O(1).
+   */
+	public long totalWeight(){
+		return totalWeight;
+	}
+
+  /**
+   * edgeCount() returns the number of edges in the minimum spanning forest,
+   * which is |V| minus the number of connected components.
+   *
+   * Running time:  O(1).
+   */
+	public int edgeCount(){
+		return forestEdges;
+	}
+
+  /**
+   * isForestEdge() returns true if (u, v) is an edge of the minimum spanning
+   * forest.
+   *
+   * Running time:  O(1).
+   */
+	public boolean isForestEdge(Object u, Object v){
+		int e = edgeNode(u, v);
+		return e>=0 && inForest[e];
+	}
+
+  /**
+   * toGraph() returns a new WUGraph holding every vertex of the graph and
+   * the edges of its minimum spanning forest.
+   *
+   * Running time:  O(|V| + |E|).
+   */
+	public WUGraph toGraph(){
+		Object[] vertices = graph.getVertices();
+		WUGraph tree = new WUGraph(vertices.length, forestEdges);
+		tree.addVertices(vertices);
+		Object[] us = new Object[forestEdges];
+		Object[] vs = new Object[forestEdges];
+		int[] ws = new int[forestEdges];
+		int count = 0;
+		for (int e=0;e<inForest.length;e++){
+			if (inForest[e]){
+				us[count] = vertexOf[edgeU[e]];
+				vs[count] = vertexOf[edgeV[e]];
+				ws[count] = weight(e);
+				count++;
+			}
+		}
+		tree.addEdges(us, vs, ws);
+		return tree;
+	}
+
+	public void vertexAdded(Object vertex){
+		int x = forest.newNode(VERTEX_KEY);
+		vertexOf = ensure(vertexOf, x+1);
+		vertexOf[x] = vertex;
+		if (x>=mark.length){
+			mark = copyOf(mark, Math.max(x+1, 2*mark.length));
+		}
+		mark[x] = 0;
+		nodes.insert(vertex, Integer.valueOf(x));
+		edges.addVertex(x);
+	}
+
+	public void vertexRemoved(Object vertex){
+		// its edges have all been removed already, so its node stands alone;
+		int x = node(vertex);
+		nodes.remove(vertex);
+		edges.removeVertex(x);
+		vertexOf[x] = null;
+		forest.freeNode(x);
+	}
+
+	public void edgeAdded(Object u, Object v, int weight){
+		int a = node(u);
+		int b = node(v);
+		if (edges.isEdge(a, b)){
+			return;
+		}
+		int e = forest.newNode(0);
+		forest.setValue(e, key(weight, e));
+		int size = Math.max(e+1, 2*edgeU.length);
+		if (e>=edgeU.length){
+			edgeU = copyOf(edgeU, size);
+			edgeV = copyOf(edgeV, size);
+			inForest = copyOf(inForest, size);
+			inSpare = copyOf(inSpare, size);
+		}
+		edgeU[e] = a;
+		edgeV[e] = b;
+		inForest[e] = false;
+		inSpare[e] = false;
+		edges.addEdge(a, b, e);
+		offer(e);
+	}
+
+	public void edgeWeightChanged(Object u, Object v, int oldWeight, int newWeight){
+		int e = edgeNode(u, v);
+		long k = key(newWeight, e);
+		if (inForest[e]){
+			forest.setValue(e, k);
+			totalWeight += (long)newWeight-oldWeight;
+			if (newWeight>oldWeight){
+				// a lighter edge may now replace it, or it may replace itself;
+				unlink(e);
+				park(e);
+				repair(edgeU[e], edgeV[e]);
+			}
+		} else if (!inSpare[e]){
+			forest.setValue(e, k);			// a self-edge;
+		} else {
+			spare.remove(e);
+			inSpare[e] = false;
+			forest.setValue(e, k);
+			if (newWeight<oldWeight){
+				offer(e);					// it may now replace a forest edge;
+			} else {
+				park(e);
+			}
+		}
+	}
+
+	public void edgeRemoved(Object u, Object v, int weight){
+		int e = edgeNode(u, v);
+		edges.removeEdge(edgeU[e], edgeV[e]);
+		if (inForest[e]){
+			unlink(e);
+			repair(edgeU[e], edgeV[e]);
+		} else if (inSpare[e]){
+			spare.remove(e);
+			inSpare[e] = false;
+		}
+		forest.freeNode(e);
+	}
+
+	// repair joins the lightest waiting edge between the halves of the tree just split between
+	// vertex nodes a and b, if there is one;
+	private void repair(int a, int b){
+		if (searches>Integer.MAX_VALUE-2){
+			// the search numbers wrap around; forget every old mark;
+			for (int x=0;x<mark.length;x++){
+				mark[x] = 0;
+			}
+			searches = 0;
+		}
+		int[] stamp = {searches+1, searches+2};
+		searches += 2;
+		int[] ends = {a, b};
+		int[] found = new int[2];		//per half:  the vertices reached so far;
+		int[] done = new int[2];		//per half:  the vertices searched so far;
+		int[] numMet = new int[2];
+		long[] work = new long[2];		//per half:  the edges looked at so far;
+		for (int h=0;h<2;h++){
+			mark[ends[h]] = stamp[h];
+			reached[h][0] = ends[h];
+			found[h] = 1;
+		}
+		// grow whichever half has cost less so far, until one of them is complete;
+		while (done[0]<found[0] && done[1]<found[1]){
+			int h = (work[0]<=work[1]) ? 0 : 1;
+			int x = reached[h][done[h]];
+			done[h]++;
+			IntNeighbors neighbors = edges.getNeighbors(x);
+			work[h]++;
+			if (neighbors==null){
+				continue;
+			}
+			work[h] += neighbors.neighborList.length;
+			for (int i=0;i<neighbors.neighborList.length;i++){
+				int y = neighbors.neighborList[i];
+				int e = neighbors.weightList[i];
+				if (inForest[e] && mark[y]!=stamp[h]){
+					mark[y] = stamp[h];
+					reached[h] = ensure(reached[h], found[h]+1);
+					reached[h][found[h]] = y;
+					found[h]++;
+				} else if (inSpare[e]){
+					met[h] = ensure(met[h], numMet[h]+1);
+					met[h][numMet[h]] = e;
+					numMet[h]++;
+				}
+			}
+		}
+		// the complete half is the smaller; a waiting edge met there that leaves it is a replacement;
+		int h = (done[0]==found[0]) ? 0 : 1;
+		int best = -1;
+		for (int i=0;i<numMet[h];i++){
+			int e = met[h][i];
+			if (mark[edgeU[e]]!=stamp[h] || mark[edgeV[e]]!=stamp[h]){
+				if (best<0 || forest.value(e)<forest.value(best)){
+					best = e;
+				}
+			}
+		}
+		if (best>=0){
+			spare.remove(best);
+			inSpare[best] = false;
+			join(best);
+		}
+	}
+
+	// offer adds edge node e, in neither the forest nor the spare set, to whichever it belongs in;
+	private void offer(int e){
+		int a = edgeU[e];
+		int b = edgeV[e];
+		if (a==b){
+			return;
+		}
+		int heaviest = forest.pathMax(a, b);
+		if (heaviest>=0){
+			if (forest.value(heaviest)<forest.value(e)){
+				park(e);
+				return;
+			}
+			unlink(heaviest);
+			park(heaviest);
+		}
+		join(e);
+	}
+
+	// join links edge node e into the forest;
+	private void join(int e){
+		forest.link(e, edgeU[e]);
+		forest.link(e, edgeV[e]);
+		inForest[e] = true;
+		totalWeight += weight(e);
+		forestEdges++;
+	}
+
+	// unlink takes edge node e out of the forest;
+	private void unlink(int e){
+		forest.cut(e, edgeU[e]);
+		forest.cut(e, edgeV[e]);
+		inForest[e] = false;
+		totalWeight -= weight(e);
+		forestEdges--;
+	}
+
+	// park puts edge node e in the spare set;
+	private void park(int e){
+		spare.insert(e, forest.value(e));
+		inSpare[e] = true;
+	}
+
+	// node returns the LinkCutTree node of "vertex";
+	private int node(Object vertex){
+		return ((Integer)(nodes.get(vertex))).intValue();
+	}
+
+	// edgeNode returns the edge node of (u, v), or -1 if it is not an edge;
+	private int edgeNode(Object u, Object v){
+		Object a = nodes.get(u);
+		Object b = nodes.get(v);
+		if (a==null || b==null){
+			return -1;
+		}
+		int x = ((Integer)a).intValue();
+		int y = ((Integer)b).intValue();
+		return edges.isEdge(x, y) ? edges.weight(x, y) : -1;
+	}
+
+	// weight returns the weight of edge node e;
+	private int weight(int e){
+		return (int)(forest.value(e)>>32);
+	}
+
+	// key packs a weight and an edge node into one comparable value;
+	private static long key(int weight, int e){
+		return ((long)weight<<32) | e;
+	}
+
+	private static int[] copyOf(int[] a, int length){
+		int[] temp = new int[length];
+		System.arraycopy(a, 0, temp, 0, a.length);
+		return temp;
+	}
+
+	private static boolean[] copyOf(boolean[] a, int length){
+		boolean[] temp = new boolean[length];
+		System.arraycopy(a, 0, temp, 0, a.length);
+		return temp;
+	}
+
+	// ensure returns a, or a longer copy of it, with room for "length" entries;
+	private static int[] ensure(int[] a, int length){
+		if (length<=a.length){
+			return a;
+		}
+		return copyOf(a, Math.max(length, 2*a.length));
+	}
+
+	private static Object[] ensure(Object[] a, int length){
+		if (length<=a.length){
+			return a;
+		}
+		Object[] temp = new Object[Math.max(length, 2*a.length)];
+		System.arraycopy(a, 0, temp, 0, a.length);
+		return temp;
+	}
+}
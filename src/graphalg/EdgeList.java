@@ -0,0 +1,67 @@
+/* EdgeList.java */
+
+package graphalg;
+
+import graph.*;
+
+/**
+ * An EdgeList holds each undirected edge of a CsrGraph exactly once, in three
+ * parallel int arrays indexed by the snapshot's edge id:  edge e joins
+ * vertex ids u[e] and v[e] (with u[e] <= v[e]) and has weight w[e].  The MST
+ * engines work on these arrays instead of on Kedge objects.
+ *
+ * Since this class is merely a collection of data, all fields are public.
+ */
+
+public class EdgeList {
+	public int[] u;
+	public int[] v;
+	public int[] w;
+	public int size;
+
+	public EdgeList(int size){
+		this.u = new int[size];
+		this.v = new int[size];
+		this.w = new int[size];
+		this.size = size;
+	}
+
+  /**
+   * of() lists the edges of g, each taken from its lower-numbered end.
+   *
+   * Running time:  O(|V| + |E|).
+   */
+	public static EdgeList of(CsrGraph g){
+		EdgeList edges = new EdgeList(g.edgeCount());
+		int[] offsets = g.offsets();
+		int[] targets = g.targets();
+		int[] weights = g.weights();
+		int[] edgeIds = g.edgeIds();
+		for (int a=0;a<g.vertexCount();a++){
+			for (int k=offsets[a];k<offsets[a+1];k++){
+				if (targets[k]>=a){
+					int e = edgeIds[k];
+					edges.u[e] = a;
+					edges.v[e] = targets[k];
+					edges.w[e] = weights[k];
+				}
+			}
+		}
+		return edges;
+	}
+
+  /**
+   * sortKeys() returns one long per edge, packing the weight into the high
+   * 32 bits and the edge id into the low 32, so sorting the keys orders the
+   * edges by weight and breaks ties by id.  The id of a key is (int) key.
+   *
+   * Running time:  O(|E|).
+   */
+	public long[] sortKeys(){
+		long[] keys = new long[size];
+		for (int e=0;e<size;e++){
+			keys[e] = ((long)w[e]<<32) | e;
+		}
+		return keys;
+	}
+}
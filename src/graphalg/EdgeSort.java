@@ -0,0 +1,135 @@
+/* EdgeSort.java */
+
+package graphalg;
+
+/**
+ * The EdgeSort class orders the edges of an EdgeList by weight without
+ * comparisons.  Since weights are ints, sorting them takes O(|E|) time:
+ * a counting sort when the weights span a small range, and otherwise an LSD
+ * radix sort, one pass per byte of the range, skipping any pass in which all
+ * the edges share the same byte.  Very short lists use an insertion sort.
+ *
+ * Every path is stable, and the edges start in id order, so edges of equal
+ * weight come out in id order, just as the packed (weight, edge id) keys
+ * sort in Kruskal.
+ */
+
+public class EdgeSort {
+	private static final int INSERTION_LIMIT = 32;	//below this, insertion sort wins;
+	private static final int RADIX_BITS = 8;
+	private static final int RADIX = 1<<RADIX_BITS;
+
+  /**
+   * order() returns the ids 0...size-1 of "edges", sorted by weight, with
+   * ties broken by id.
+   *
+   * Running time:  O(|E| + r) for a counting sort over a range of r weights,
+   * where r is at most a small multiple of |E|; otherwise O(|E|) per byte of
+   * the weight range, that is, at most four passes.
+   */
+	public static int[] order(EdgeList edges){
+		return order(edges.w, edges.size);
+	}
+
+  /**
+   * order() returns the indices 0...size-1 of w, sorted by w[], with ties
+   * broken by index.
+   */
+	public static int[] order(int[] w, int size){
+		int[] ids = new int[size];
+		if (size==0){
+			return ids;
+		}
+		int min = w[0];
+		int max = w[0];
+		for (int i=1;i<size;i++){
+			if (w[i]<min){
+				min = w[i];
+			} else if (w[i]>max){
+				max = w[i];
+			}
+		}
+		long range = (long)max-min+1;
+		if (size<=INSERTION_LIMIT){
+			insertionSort(w, ids, size);
+		} else if (range<=Math.max(RADIX, 2L*size)){
+			countingSort(w, ids, size, min, (int)range);
+		} else {
+			radixSort(w, ids, size, min);
+		}
+		return ids;
+	}
+
+	// insertionSort sorts the indices 0...size-1 by weight;
+	private static void insertionSort(int[] w, int[] ids, int size){
+		for (int i=0;i<size;i++){
+			int j = i;
+			while (j>0 && w[ids[j-1]]>w[i]){
+				ids[j] = ids[j-1];
+				j--;
+			}
+			ids[j] = i;
+		}
+	}
+
+	// countingSort places each index after all indices of smaller weight, in index order;
+	private static void countingSort(int[] w, int[] ids, int size, int min, int range){
+		int[] start = new int[range+1];
+		for (int i=0;i<size;i++){
+			start[w[i]-min+1]++;
+		}
+		for (int r=0;r<range;r++){
+			start[r+1] += start[r];
+		}
+		for (int i=0;i<size;i++){
+			ids[start[w[i]-min]++] = i;
+		}
+	}
+
+	// radixSort sorts by (w - min), read as unsigned, a byte at a time from the lowest;
+	private static void radixSort(int[] w, int[] ids, int size, int min){
+		int[] keys = new int[size];
+		int passes = 32/RADIX_BITS;
+		int[][] count = new int[passes][RADIX+1];
+		for (int i=0;i<size;i++){
+			int k = w[i]-min;
+			keys[i] = k;
+			for (int p=0;p<passes;p++){
+				count[p][((k>>>(p*RADIX_BITS))&(RADIX-1))+1]++;
+			}
+		}
+		int[] src = ids;
+		int[] srcKeys = keys;
+		int[] dst = new int[size];
+		int[] dstKeys = new int[size];
+		for (int i=0;i<size;i++){
+			src[i] = i;
+		}
+		for (int p=0;p<passes;p++){
+			int[] start = count[p];
+			int shift = p*RADIX_BITS;
+			// a pass in which every key has the same digit would not move anything;
+			if (start[((srcKeys[0]>>>shift)&(RADIX-1))+1]==size){
+				continue;
+			}
+			for (int r=0;r<RADIX;r++){
+				start[r+1] += start[r];
+			}
+			for (int i=0;i<size;i++){
+				int k = srcKeys[i];
+				int slot = start[(k>>>shift)&(RADIX-1)]++;
+				dst[slot] = src[i];
+				dstKeys[slot] = k;
+			}
+			int[] temp = src;
+			src = dst;
+			dst = temp;
+			temp = srcKeys;
+			srcKeys = dstKeys;
+			dstKeys = temp;
+		}
+		if (src!=ids){
+			System.arraycopy(src, 0, ids, 0, size);
+		}
+	}
+}
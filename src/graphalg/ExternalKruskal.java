@@ -0,0 +1,471 @@
+/* ExternalKruskal.java */
+
+package graphalg;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import set.*;
+
+/**
+ * An ExternalKruskal computes the minimum spanning forest of a graph whose
+ * edges do not fit in memory.  Vertices are the ints 0...vertexCount-1; the
+ * edges are streamed in, by addEdge() or from a file by addEdges(), and only
+ * a buffer of them is held at a time.
+ *
+ * Whenever the buffer fills, it is ordered by EdgeSort and written to a
+ * temporary file as a sorted run of 20-byte records (weight, sequence
+ * number, u, v), through a FileChannel.  minSpanForest() merges the runs k
+ * ways, by weight and then by the order the edges were added in, and feeds
+ * the merged stream to a DisjointSets over the vertices, stopping as soon as
+ * the forest is a tree.  If there are more runs than the budget allows
+ * buffers for, groups of them are first merged into longer runs.  If no run
+ * was ever written, the buffer is sorted in memory and the disk is not
+ * touched at all.
+ *
+ * Apart from the DisjointSets and the forest itself, which take O(|V|)
+ * space, the heap used stays within the memory budget given to the
+ * constructor, however many edges there are.  Ties are broken as Kruskal
+ * breaks them, by the order the edges arrived in.
+ */
+
+public class ExternalKruskal {
+	public static final long MIN_BUDGET = 1<<17;	//the smallest memory budget allowed, in bytes;
+
+	private static final int RECORD = 20;			//bytes per run record:  weight, sequence (long), u, v;
+	private static final int INPUT_RECORD = 12;		//bytes per input record:  u, v, weight;
+	private static final int EDGE_BYTES = 32;		//heap per buffered edge:  u, v, w, and EdgeSort's arrays;
+	private static final int SPILL_BLOCK = 1<<16;	//bytes of the buffer a run is written through;
+	private static final int MIN_BLOCK = 1<<12;		//the smallest buffer a run is merged through;
+	private static final int MAX_FAN_IN = 256;		//the most runs merged at once, to bound open files;
+
+	private final int vertexCount;
+	private final long budget;
+	private final File directory;
+
+	private final int capacity;		//the most edges buffered before a run is written;
+	private int[] bufferU;
+	private int[] bufferV;
+	private int[] bufferW;
+	private int buffered;
+	private long sequence;			//edges added so far;
+
+	private File[] runs;
+	private int numRuns;
+
+  /**
+   * ExternalKruskal() prepares to take the edges of a graph on the vertices
+   * 0...vertexCount-1, using at most about "budget" bytes of heap for them,
+   * and writing runs to the default temporary-file directory.
+   */
+	public ExternalKruskal(int vertexCount, long budget){
+		this(vertexCount, budget, null);
+	}
+
+  /**
+   * ExternalKruskal() prepares to take the edges of a graph on the vertices
+   * 0...vertexCount-1, using at most about "budget" bytes of heap for them,
+   * and writing runs to "directory" (or the default temporary-file directory
+   * if it is null).
+   */
+	public ExternalKruskal(int vertexCount, long budget, File directory){
+		if (vertexCount<0){
+			throw new IllegalArgumentException("negative vertex count: " + vertexCount);
+		}
+		if (budget<MIN_BUDGET){
+			throw new IllegalArgumentException("memory budget below " + MIN_BUDGET + " bytes: " + budget);
+		}
+		this.vertexCount = vertexCount;
+		this.budget = budget;
+		this.directory = directory;
+		capacity = (int)Math.min((budget-SPILL_BLOCK)/EDGE_BYTES, Integer.MAX_VALUE-8);
+		bufferU = new int[Math.min(capacity, 1024)];
+		bufferV = new int[bufferU.length];
+		bufferW = new int[bufferU.length];
+		runs = new File[16];
+	}
+
+  /**
+   * edgeCount() returns the number of edges added so far.
+   */
+	public long edgeCount(){
+		return sequence;
+	}
+
+  /**
+   * addEdge() adds the edge (u, v) of the given weight.  Self-edges are
+   * accepted but can never be part of the forest.
+   *
+   * Running time:  O(1) amortized, plus the writing of a run when the buffer
+   * fills.
+   */
+	public void addEdge(int u, int v, int weight) throws IOException {
+		if (u<0 || u>=vertexCount || v<0 || v>=vertexCount){
+			throw new IllegalArgumentException("no such vertex in edge (" + u + ", " + v + ")");
+		}
+		if (buffered==bufferU.length){
+			if (buffered==capacity){
+				spill();
+			} else {
+				int length = (int)Math.min(2L*buffered, capacity);
+				bufferU = copyOf(bufferU, length);
+				bufferV = copyOf(bufferV, length);
+				bufferW = copyOf(bufferW, length);
+			}
+		}
+		bufferU[buffered] = u;
+		bufferV[buffered] = v;
+		bufferW[buffered] = weight;
+		buffered++;
+		sequence++;
+	}
+
+  /**
+   * addEdges() adds every edge stored in "file", which holds 12-byte records
+   * of three big-endian ints:  u, v, and the weight.  The file is streamed,
+   * not loaded.
+   *
+   * Running time:  O(m) for m records, plus the writing of runs.
+   */
+	public void addEdges(File file) throws IOException {
+		FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			ByteBuffer block = ByteBuffer.allocate(SPILL_BLOCK);
+			while (in.read(block)>=0){
+				block.flip();
+				while (block.remaining()>=INPUT_RECORD){
+					addEdge(block.getInt(), block.getInt(), block.getInt());
+				}
+				block.compact();
+			}
+			if (block.position()!=0){
+				throw new IOException(file + " ends in the middle of a record");
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+  /**
+   * minSpanForest() returns the edges of the minimum spanning forest, in the
+   * order Kruskal's algorithm chooses them and each with u <= v, and removes
+   * every edge added so far, so that the ExternalKruskal may be used again.
+   * Its temporary files are deleted even if it fails.
+   *
+   * Running time:  O(|E| log k) for a merge of k runs, plus O(|E| log_k r)
+   * for the longer runs built first when there are r > k runs.  Each edge is
+   * read and written once per merge pass.
+   */
+	public EdgeList minSpanForest() throws IOException {
+		try {
+			if (numRuns==0){
+				return inMemory();
+			}
+			spill();
+			bufferU = new int[0];
+			bufferV = new int[0];
+			bufferW = new int[0];
+			int fanIn = (int)Math.min(MAX_FAN_IN, budget/MIN_BLOCK-1);
+			while (numRuns>fanIn){
+				mergeRuns(fanIn);
+			}
+			return choose();
+		} finally {
+			for (int i=0;i<numRuns;i++){
+				runs[i].delete();
+			}
+			numRuns = 0;
+			buffered = 0;
+			sequence = 0;
+			bufferU = new int[Math.min(capacity, 1024)];
+			bufferV = new int[bufferU.length];
+			bufferW = new int[bufferU.length];
+		}
+	}
+
+	// inMemory runs Kruskal's algorithm on the buffer alone;
+	private EdgeList inMemory(){
+		int[] order = EdgeSort.order(bufferW, buffered);
+		DisjointSets sets = new DisjointSets(vertexCount);
+		EdgeList forest = new EdgeList(Math.max(vertexCount-1, 0));
+		int count = 0;
+		for (int i=0;i<buffered && count<vertexCount-1;i++){
+			int e = order[i];
+			int root1 = sets.find(bufferU[e]);
+			int root2 = sets.find(bufferV[e]);
+			if (root1!=root2){
+				sets.union(root1, root2);
+				forest.u[count] = Math.min(bufferU[e], bufferV[e]);
+				forest.v[count] = Math.max(bufferU[e], bufferV[e]);
+				forest.w[count] = bufferW[e];
+				count++;
+			}
+		}
+		forest.size = count;
+		return forest;
+	}
+
+	// spill writes the buffer to a new run, sorted, and empties it;
+	private void spill() throws IOException {
+		if (buffered==0){
+			return;
+		}
+		int[] order = EdgeSort.order(bufferW, buffered);
+		long first = sequence-buffered;
+		RunWriter out = new RunWriter(newRun(), SPILL_BLOCK);
+		try {
+			for (int i=0;i<buffered;i++){
+				int e = order[i];
+				out.write(bufferW[e], first+e, bufferU[e], bufferV[e]);
+			}
+		} finally {
+			out.close();
+		}
+		buffered = 0;
+	}
+
+	// mergeRuns merges the first fanIn runs into one, which replaces them at the end of the list;
+	private void mergeRuns(int fanIn) throws IOException {
+		int block = blockSize(fanIn+1);
+		File merged = newRun();
+		RunMerger merger = new RunMerger(runs, fanIn, block);
+		RunWriter out = new RunWriter(merged, block);
+		try {
+			try {
+				while (merger.hasNext()){
+					RunReader r = merger.next();
+					out.write(r.weight, r.sequence, r.u, r.v);
+					merger.advance();
+				}
+			} finally {
+				out.close();
+			}
+		} finally {
+			merger.close();
+		}
+		for (int i=0;i<fanIn;i++){
+			runs[i].delete();
+		}
+		// the new run is the last; move the survivors up;
+		File last = runs[numRuns-1];
+		System.arraycopy(runs, fanIn, runs, 0, numRuns-1-fanIn);
+		numRuns -= fanIn;
+		runs[numRuns-1] = last;
+	}
+
+	// choose merges all the runs into the disjoint sets, keeping the edges that join two trees;
+	private EdgeList choose() throws IOException {
+		DisjointSets sets = new DisjointSets(vertexCount);
+		EdgeList forest = new EdgeList(Math.max(vertexCount-1, 0));
+		int count = 0;
+		RunMerger merger = new RunMerger(runs, numRuns, blockSize(numRuns));
+		try {
+			while (merger.hasNext() && count<vertexCount-1){
+				RunReader r = merger.next();
+				int root1 = sets.find(r.u);
+				int root2 = sets.find(r.v);
+				if (root1!=root2){
+					sets.union(root1, root2);
+					forest.u[count] = Math.min(r.u, r.v);
+					forest.v[count] = Math.max(r.u, r.v);
+					forest.w[count] = r.weight;
+					count++;
+				}
+				merger.advance();
+			}
+		} finally {
+			merger.close();
+		}
+		forest.size = count;
+		return forest;
+	}
+
+	// blockSize returns the buffer size for each of "buffers" runs open at once;
+	private int blockSize(int buffers){
+		long size = budget/buffers;
+		return (int)Math.min(size-size%RECORD, 1<<24);
+	}
+
+	// newRun creates an empty temporary file and adds it to the list of runs;
+	private File newRun() throws IOException {
+		File file = File.createTempFile("kruskal", ".run", directory);
+		if (numRuns==runs.length){
+			File[] temp = new File[2*numRuns];
+			System.arraycopy(runs, 0, temp, 0, numRuns);
+			runs = temp;
+		}
+		runs[numRuns] = file;
+		numRuns++;
+		return file;
+	}
+
+	private static int[] copyOf(int[] a, int length){
+		int[] temp = new int[length];
+		System.arraycopy(a, 0, temp, 0, Math.min(a.length, length));
+		return temp;
+	}
+
+	/**
+	 * A RunWriter writes records to a run through a buffer of fixed size.
+	 */
+	private static class RunWriter {
+		private final FileChannel channel;
+		private final ByteBuffer block;
+
+		RunWriter(File file, int size) throws IOException {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+									   StandardOpenOption.TRUNCATE_EXISTING);
+			block = ByteBuffer.allocate(size);
+		}
+
+		void write(int weight, long sequence, int u, int v) throws IOException {
+			if (block.remaining()<RECORD){
+				drain();
+			}
+			block.putInt(weight);
+			block.putLong(sequence);
+			block.putInt(u);
+			block.putInt(v);
+		}
+
+		// drain writes out whatever the buffer holds;
+		private void drain() throws IOException {
+			block.flip();
+			while (block.hasRemaining()){
+				channel.write(block);
+			}
+			block.clear();
+		}
+
+		void close() throws IOException {
+			try {
+				drain();
+			} finally {
+				channel.close();
+			}
+		}
+	}
+
+	/**
+	 * A RunReader reads a run one record at a time through a buffer of fixed
+	 * size; the fields hold the current record.
+	 */
+	private static class RunReader {
+		private final FileChannel channel;
+		private final ByteBuffer block;
+		int weight;
+		long sequence;
+		int u;
+		int v;
+
+		RunReader(File file, int size) throws IOException {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			block = ByteBuffer.allocate(size);
+			block.flip();
+		}
+
+		// advance reads the next record, returning false at the end of the run;
+		boolean advance() throws IOException {
+			if (block.remaining()<RECORD){
+				block.compact();
+				while (block.hasRemaining() && channel.read(block)>=0){
+					// fill the buffer, or read up to the end of the run;
+				}
+				block.flip();
+				if (block.remaining()<RECORD){
+					return false;
+				}
+			}
+			weight = block.getInt();
+			sequence = block.getLong();
+			u = block.getInt();
+			v = block.getInt();
+			return true;
+		}
+
+		// precedes returns true if this record comes before that of r;
+		boolean precedes(RunReader r){
+			return weight<r.weight || (weight==r.weight && sequence<r.sequence);
+		}
+
+		void close() throws IOException {
+			channel.close();
+		}
+	}
+
+	/**
+	 * A RunMerger merges sorted runs with a binary heap of their readers,
+	 * ordered by their current records.
+	 */
+	private static class RunMerger {
+		private final RunReader[] heap;
+		private int size;
+
+		RunMerger(File[] runs, int count, int block) throws IOException {
+			heap = new RunReader[count];
+			try {
+				for (int i=0;i<count;i++){
+					RunReader r = new RunReader(runs[i], block);
+					if (r.advance()){
+						heap[size] = r;
+						size++;
+					} else {
+						r.close();
+					}
+				}
+			} catch (IOException e){
+				close();
+				throw e;
+			}
+			for (int i=size/2-1;i>=0;i--){
+				siftDown(i);
+			}
+		}
+
+		boolean hasNext(){
+			return size>0;
+		}
+
+		// next returns the reader whose current record comes first;
+		RunReader next(){
+			return heap[0];
+		}
+
+		// advance moves the first reader on to its next record;
+		void advance() throws IOException {
+			if (!heap[0].advance()){
+				heap[0].close();
+				size--;
+				heap[0] = heap[size];
+				heap[size] = null;
+			}
+			if (size>0){
+				siftDown(0);
+			}
+		}
+
+		private void siftDown(int i){
+			RunReader r = heap[i];
+			while (2*i+1<size){
+				int child = 2*i+1;
+				if (child+1<size && heap[child+1].precedes(heap[child])){
+					child++;
+				}
+				if (!heap[child].precedes(r)){
+					break;
+				}
+				heap[i] = heap[child];
+				i = child;
+			}
+			heap[i] = r;
+		}
+
+		void close() throws IOException {
+			for (int i=0;i<size;i++){
+				heap[i].close();
+			}
+			size = 0;
+		}
+	}
+}
@@ -0,0 +1,263 @@
+/* FilterKruskal.java */
+
+package graphalg;
+
+import graph.*;
+import set.*;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The FilterKruskal class computes minimum spanning trees with the
+ * Filter-Kruskal variant of Kruskal's algorithm, which suits dense graphs.
+ *
+ * Rather than sorting every edge up front, it splits the edges around a pivot
+ * weight, runs itself on the light part first, and then filters the heavy
+ * part, throwing away every edge whose ends the light part already connected
+ * before recursing on what is left.  On a dense graph most heavy edges are
+ * thrown away unsorted.  Small parts are sorted and scanned as in Kruskal.
+ *
+ * Edges are packed (weight, edge id) longs, the order Kruskal uses, so the
+ * result is the same forest Kruskal.minSpanTree() returns.  The partition and
+ * filter passes over large parts are split among the threads of a
+ * ForkJoinPool; the filter reads the disjoint sets with root(), which does not
+ * modify them, while no union is in progress.
+ */
+
+public class FilterKruskal {
+	private static final int SORT_LIMIT = 1<<14;		//parts this small are sorted directly;
+	private static final int PARALLEL_LIMIT = 1<<16;	//parts this small are split sequentially;
+	private static final int GRAIN = 1<<13;
+
+	// the kinds of parallel step, each a loop over chunks of a part;
+	private static final int COUNT_LIGHT = 0;
+	private static final int PARTITION = 1;
+	private static final int COUNT_LIVE = 2;
+	private static final int FILTER = 3;
+
+	private final ForkJoinPool pool;
+	private final EdgeList edges;
+	private final DisjointSets sets;
+	private final long[] keys;
+	private final long[] temp;
+	private final int[] chosen;
+	private int count;
+
+	// the part and chunking of the current parallel pass;
+	private int lo;
+	private int hi;
+	private long pivot;
+	private int chunkSize;
+	private int[] chunkCount;
+
+	private FilterKruskal(CsrGraph g, ForkJoinPool pool){
+		this.pool = pool;
+		edges = EdgeList.of(g);
+		sets = new DisjointSets(g.vertexCount());
+		keys = edges.sortKeys();
+		temp = new long[keys.length];
+		chosen = new int[Math.max(g.vertexCount()-1, 0)];
+	}
+
+  /**
+   * minSpanTree() returns a WUGraph that represents the minimum spanning tree
+   * of the WUGraph g, computed on the common ForkJoinPool.  The original
+   * WUGraph g is NOT changed.
+   *
+   * @param g The weighted, undirected graph whose MST we want to compute.
+   * @return A newly constructed WUGraph representing the MST of g.
+   */
+	public static WUGraph minSpanTree(WUGraph g){
+		return minSpanTree(g.freeze(), ForkJoinPool.commonPool());
+	}
+
+  /**
+   * minSpanForest() returns the minimum spanning forest of the WUGraph g as
+   * an MstResult, computed on the common ForkJoinPool, without building a
+   * WUGraph for it.  The original WUGraph g is NOT changed.
+   *
+   * @param g The weighted, undirected graph whose MST we want to compute.
+   * @return The minimum spanning forest of g.
+   */
+	public static MstResult minSpanForest(WUGraph g){
+		return minSpanForest(g.freeze(), ForkJoinPool.commonPool());
+	}
+
+  /**
+   * minSpanTree() returns a WUGraph that represents the minimum spanning tree
+   * of the snapshot g, splitting large partition and filter passes among the
+   * threads of "pool".
+   *
+   * Running time:  O(|E| + |V| log |V| log(|E|/|V|)) expected on random
+   * weights; never worse than O(|E| log |E|).
+   *
+   * @param g The snapshot whose MST we want to compute.
+   * @param pool The pool to run the passes on.
+   * @return A newly constructed WUGraph representing the MST of g.
+   */
+	public static WUGraph minSpanTree(CsrGraph g, ForkJoinPool pool){
+		return minSpanForest(g, pool).toGraph();
+	}
+
+  /**
+   * minSpanForest() returns the minimum spanning forest of the snapshot g as
+   * an MstResult, computed as minSpanTree() computes it.
+   *
+   * @param g The snapshot whose MST we want to compute.
+   * @param pool The pool to run the passes on.
+   * @return The minimum spanning forest of g.
+   */
+	public static MstResult minSpanForest(CsrGraph g, ForkJoinPool pool){
+		FilterKruskal f = new FilterKruskal(g, pool);
+		f.filterKruskal(0, f.keys.length);
+		return new MstResult(g, f.edges, f.chosen, f.count);
+	}
+
+	// filterKruskal adds the tree edges among keys[from...to-1], in weight order;
+	private void filterKruskal(int from, int to){
+		while (to-from>SORT_LIMIT && count<chosen.length){
+			long p = medianOfThree(from, to);
+			int split = partition(from, to, p);
+			filterKruskal(from, split);
+			from = split;
+			to = filter(from, to);
+		}
+		if (count<chosen.length){
+			kruskal(from, to);
+		}
+	}
+
+	// kruskal sorts keys[from...to-1] and scans them as Kruskal's algorithm does;
+	private void kruskal(int from, int to){
+		Arrays.sort(keys, from, to);
+		for (int i=from;i<to && count<chosen.length;i++){
+			int e = (int)keys[i];
+			int root1 = sets.find(edges.u[e]);
+			int root2 = sets.find(edges.v[e]);
+			if (root1!=root2){
+				sets.union(root1, root2);
+				chosen[count] = e;
+				count++;
+			}
+		}
+	}
+
+	// medianOfThree picks a pivot from keys[from...to-1] that is neither the largest nor smallest key;
+	private long medianOfThree(int from, int to){
+		long a = keys[from];
+		long b = keys[(from+to)>>>1];
+		long c = keys[to-1];
+		if (a>b){
+			long t = a;
+			a = b;
+			b = t;
+		}
+		return (c<a) ? a : (c>b) ? b : c;
+	}
+
+	// partition moves the keys <= p in keys[from...to-1] to the front, returning where the rest start;
+	private int partition(int from, int to, long p){
+		pivot = p;
+		return pass(COUNT_LIGHT, PARTITION, from, to, true);
+	}
+
+	// filter drops the edges in keys[from...to-1] that join one set, returning the new end;
+	private int filter(int from, int to){
+		return pass(COUNT_LIVE, FILTER, from, to, false);
+	}
+
+	// pass counts the kept keys of each chunk, then copies them, in order, through temp[];
+	private int pass(int countKind, int copyKind, int from, int to, boolean keepRest){
+		lo = from;
+		hi = to;
+		int chunks = 1;
+		if (to-from>PARALLEL_LIMIT){
+			chunks = Math.min(pool.getParallelism()*4, (to-from)/GRAIN);
+		}
+		chunkSize = (to-from+chunks-1)/chunks;
+		chunkCount = new int[chunks+1];
+		if (chunks>1){
+			pool.invoke(new Step(countKind, 0, chunks));
+		} else {
+			run(countKind, 0, 1);
+		}
+		for (int i=0;i<chunks;i++){
+			chunkCount[i+1] += chunkCount[i];
+		}
+		if (chunks>1){
+			pool.invoke(new Step(copyKind, 0, chunks));
+		} else {
+			run(copyKind, 0, 1);
+		}
+		int kept = chunkCount[chunks];
+		System.arraycopy(temp, from, keys, from, keepRest ? to-from : kept);
+		return from+kept;
+	}
+
+	// light is true if key k goes before the pivot;
+	private boolean light(long k){
+		return k<=pivot;
+	}
+
+	// live is true if the edge of key k still joins two sets;
+	private boolean live(long k){
+		int e = (int)k;
+		return sets.root(edges.u[e])!=sets.root(edges.v[e]);
+	}
+
+	// run does the work of step "kind" for chunks first...last-1 of the current part;
+	private void run(int kind, int first, int last){
+		for (int chunk=first;chunk<last;chunk++){
+			int start = lo+chunk*chunkSize;
+			int end = Math.min(hi, start+chunkSize);
+			if (kind==COUNT_LIGHT || kind==COUNT_LIVE){
+				int kept = 0;
+				for (int i=start;i<end;i++){
+					if ((kind==COUNT_LIGHT) ? light(keys[i]) : live(keys[i])){
+						kept++;
+					}
+				}
+				chunkCount[chunk+1] = kept;
+			} else {
+				// kept keys go in order after those of earlier chunks; with PARTITION,
+				// the others go in order after all the kept keys;
+				int out = lo+chunkCount[chunk];
+				int rest = lo+chunkCount[chunkCount.length-1]+(start-lo)-chunkCount[chunk];
+				for (int i=start;i<end;i++){
+					long k = keys[i];
+					if ((kind==PARTITION) ? light(k) : live(k)){
+						temp[out] = k;
+						out++;
+					} else if (kind==PARTITION){
+						temp[rest] = k;
+						rest++;
+					}
+				}
+			}
+		}
+	}
+
+	// a Step runs one kind of step over a range of chunks, splitting it among the pool's threads;
+	private class Step extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int kind;
+		private final int first;
+		private final int last;
+
+		Step(int kind, int first, int last){
+			this.kind = kind;
+			this.first = first;
+			this.last = last;
+		}
+
+		protected void compute(){
+			if (last-first<=1){
+				run(kind, first, last);
+			} else {
+				int mid = (first+last)>>>1;
+				invokeAll(new Step(kind, first, mid), new Step(kind, mid, last));
+			}
+		}
+	}
+}
@@ -0,0 +1,177 @@
+/* IndexedDaryHeap.java */
+
+package graphalg;
+
+/**
+ * An IndexedDaryHeap is a min-heap of the int ids 0...capacity-1, each with a
+ * long key.  Each heap node has d children, which makes the heap shallower
+ * than a binary heap, so decreaseKey() (which walks up) is cheaper and
+ * removeMin() (which walks down) compares more keys per level.  The heap
+ * keeps the position of every id, so the key of an id in the heap can be
+ * decreased in place.
+ *
+ * Ids are not checked:  inserting an id twice, or decreasing the key of an id
+ * that is not in the heap, will corrupt the heap.
+ */
+
+public class IndexedDaryHeap {
+	private final int d;
+	private final int[] heap;		//ids, in heap order;
+	private final long[] keys;		//key of each id;
+	private final int[] position;	//index of each id in heap[], or -1;
+	private int size;
+
+  /**
+   * IndexedDaryHeap() constructs an empty heap for the ids 0...capacity-1,
+   * whose nodes have d children each.
+   */
+	public IndexedDaryHeap(int capacity, int d){
+		if (d<2){
+			throw new IllegalArgumentException("d must be at least 2");
+		}
+		this.d = d;
+		heap = new int[capacity];
+		keys = new long[capacity];
+		position = new int[capacity];
+		for (int i=0;i<capacity;i++){
+			position[i] = -1;
+		}
+	}
+
+  /**
+   * size() returns the number of ids in the heap.
+   *
+   * Running time:  O(1).
+   */
+	public int size(){
+		return size;
+	}
+
+  /**
+   * isEmpty() returns true if the heap holds no ids.
+   *
+   * Running time:  O(1).
+   */
+	public boolean isEmpty(){
+		return size==0;
+	}
+
+  /**
+   * contains() returns true if "id" is in the heap.
+   *
+   * Running time:  O(1).
+   */
+	public boolean contains(int id){
+		return position[id]>=0;
+	}
+
+  /**
+   * key() returns the key of "id", which must be in the heap.
+   *
+   * Running time:  O(1).
+   */
+	public long key(int id){
+		return keys[id];
+	}
+
+  /**
+   * insert() adds "id", which must not be in the heap, with key "key".
+   *
+   * Running time:  O(log_d n).
+   */
+	public void insert(int id, long key){
+		keys[id] = key;
+		heap[size] = id;
+		position[id] = size;
+		size++;
+		siftUp(size-1);
+	}
+
+  /**
+   * decreaseKey() lowers the key of "id", which must be in the heap, to
+   * "key".  A key that is not lower is ignored.
+   *
+   * Running time:  O(log_d n).
+   */
+	public void decreaseKey(int id, long key){
+		if (key<keys[id]){
+			keys[id] = key;
+			siftUp(position[id]);
+		}
+	}
+
+  /**
+   * minKey() returns the smallest key in the heap, which must not be empty.
+   *
+   * Running time:  O(1).
+   */
+	public long minKey(){
+		return keys[heap[0]];
+	}
+
+  /**
+   * removeMin() removes and returns the id with the smallest key.  The heap
+   * must not be empty.
+   *
+   * Running time:  O(d log_d n).
+   */
+	public int removeMin(){
+		int min = heap[0];
+		size--;
+		position[min] = -1;
+		if (size>0){
+			heap[0] = heap[size];
+			position[heap[0]] = 0;
+			siftDown(0);
+		}
+		return min;
+	}
+
+	// siftUp moves the id at heap[i] up until its parent's key is smaller;
+	private void siftUp(int i){
+		int id = heap[i];
+		long key = keys[id];
+		while (i>0){
+			int parent = (i-1)/d;
+			int p = heap[parent];
+			if (keys[p]<=key){
+				break;
+			}
+			heap[i] = p;
+			position[p] = i;
+			i = parent;
+		}
+		heap[i] = id;
+		position[id] = i;
+	}
+
+	// siftDown moves the id at heap[i] down until no child's key is smaller;
+	private void siftDown(int i){
+		int id = heap[i];
+		long key = keys[id];
+		while (true){
+			int first = i*d+1;
+			if (first>=size){
+				break;
+			}
+			int last = Math.min(first+d, size);
+			int child = first;
+			long childKey = keys[heap[first]];
+			for (int c=first+1;c<last;c++){
+				long k = keys[heap[c]];
+				if (k<childKey){
+					child = c;
+					childKey = k;
+				}
+			}
+			if (key<=childKey){
+				break;
+			}
+			heap[i] = heap[child];
+			position[heap[i]] = i;
+			i = child;
+		}
+		heap[i] = id;
+		position[id] = i;
+	}
+}
@@ -4,8 +4,6 @@ package graphalg;
 
 import graph.*;
 import set.*;
-import list.*;
-import dict.*;
 
 /**
  * The Kruskal class contains the method minSpanTree(), which implements
@@ -23,52 +21,97 @@ public class Kruskal {
    * @return A newly constructed WUGraph representing the MST of g.
    */
 	public static WUGraph minSpanTree(WUGraph g){
-		WUGraph newGraph = new WUGraph();
-		//Create a new graph T having the same vertices as G, but no edges (yet).
-		Object[] vLst = g.getVertices();
-		for (int i=0;i<vLst.length;i++){
-			newGraph.addVertex(vLst[i]);
-		}
-		//Make a list of all the edges in G by applying the method getNeighbors;
-		Kedge[] edgeLst = new Kedge[2*g.edgeCount()];
-		int k = 0;
-		for (int i=0;i<vLst.length;i++){
-			Neighbors myNeighbors = g.getNeighbors(vLst[i]);
-			for (int j=0;j<myNeighbors.neighborList.length;j++){
-				edgeLst[k]=new Kedge(vLst[i],myNeighbors.neighborList[j],myNeighbors.weightList[j]);
-				k++;
-			}
-		}
-		// quicksort all the edges by their weight;
-		quicksort(edgeLst);
-		// use disjoint set to find all the edges;
-		DisjointSets vertices = new DisjointSets(vLst.length);
-		HashTableChained vIndex = new HashTableChained();
-		for (int i=0;i<vLst.length;i++){
-			vIndex.resize();
-			vIndex.insert(vLst[i], Integer.toString(i));
-		}
-		for (int i=0;i<edgeLst.length;i++){
-			if (edgeLst[i]!=null){
-				int v1Index = Integer.parseInt((String)(vIndex.find(edgeLst[i].vertex1).value()));
-				int v2Index = Integer.parseInt((String)(vIndex.find(edgeLst[i].vertex2).value()));
-				int root1 = vertices.find(v1Index);
-				int root2 = vertices.find(v2Index);
-				if (root1!=root2){
-					vertices.union(root1,root2);
-					newGraph.addEdge(edgeLst[i].vertex1, edgeLst[i].vertex2, edgeLst[i].weight);
-				}
+		return minSpanTree(g.freeze());
+	}
+
+  /**
+   * minSpanForest() returns the minimum spanning forest of the WUGraph g as
+   * an MstResult, without building a WUGraph for it.  The original WUGraph g
+   * is NOT changed.
+   *
+   * @param g The weighted, undirected graph whose MST we want to compute.
+   * @return The minimum spanning forest of g.
+   */
+	public static MstResult minSpanForest(WUGraph g){
+		return minSpanForest(g.freeze());
+	}
+
+  /**
+   * minSpanTree() returns a WUGraph that represents the minimum spanning tree
+   * of the graph as it was when snapshot s was taken.  The graph s came from
+   * may keep changing while this runs.
+   *
+   * @param s A snapshot of the graph whose MST we want to compute.
+   * @return A newly constructed WUGraph representing the MST.
+   */
+	public static WUGraph minSpanTree(GraphSnapshot s){
+		return minSpanTree(s.csr());
+	}
+
+  /**
+   * minSpanTree() returns a WUGraph that represents the minimum spanning tree
+   * of the snapshot g.  Each undirected edge is listed once, in primitive
+   * arrays, and the edges are ordered by EdgeSort in O(|E|) time; the dense
+   * vertex ids of the snapshot index the disjoint sets directly.  Equal
+   * weights are broken by edge id, so the result is deterministic.
+   *
+   * @param g The snapshot whose MST we want to compute.
+   * @return A newly constructed WUGraph representing the MST of g.
+   */
+	public static WUGraph minSpanTree(CsrGraph g){
+		return minSpanForest(g).toGraph();
+	}
+
+  /**
+   * minSpanForest() returns the minimum spanning forest of the snapshot g as
+   * an MstResult, computed as minSpanTree() computes it.
+   *
+   * @param g The snapshot whose MST we want to compute.
+   * @return The minimum spanning forest of g.
+   */
+	public static MstResult minSpanForest(CsrGraph g){
+		int n = g.vertexCount();
+		EdgeList edges = EdgeList.of(g);
+		int[] order = EdgeSort.order(edges);
+		// use disjoint set to find all the edges, stopping once the tree is complete;
+		DisjointSets vertices = new DisjointSets(n);
+		int[] chosen = new int[Math.max(n-1, 0)];
+		int count = 0;
+		for (int i=0;i<order.length && count<n-1;i++){
+			int e = order[i];
+			int root1 = vertices.find(edges.u[e]);
+			int root2 = vertices.find(edges.v[e]);
+			if (root1!=root2){
+				vertices.union(root1,root2);
+				chosen[count] = e;
+				count++;
 			}
 		}
+		return new MstResult(g, edges, chosen, count);
+	}
 
-		return newGraph;
+  /**
+   * lazyMinSpanForest() returns the same forest as minSpanForest(), but
+   * heapifies the edges instead of sorting them, and stops popping as soon
+   * as the forest is complete (see MstCursor).  It does less work when the
+   * forest's heaviest edge is light compared to most edges, as on very
+   * dense graphs; on sparse ones the linear-time EdgeSort is faster.
+   *
+   * Running time:  O(|E| + k log |E|), where k is the number of edges no
+   * heavier than the heaviest edge of the forest.
+   *
+   * @param g The snapshot whose MST we want to compute.
+   * @return The minimum spanning forest of g.
+   */
+	public static MstResult lazyMinSpanForest(CsrGraph g){
+		return new MstCursor(g).finish();
 	}
 	
 
 
 	public static void quicksort(Kedge[] a) {
 		int i = a.length-1;
-		while (a[i]==null){
+		while (i>=0 && a[i]==null){
 			i--;
 		}
 		quicksort(a, 0, i);
@@ -99,20 +142,20 @@ public class Kruskal {
 	*  lowest index or left and highest index or right.  The first time you call
 	*  this function it will be with the parameters 0, a.length - 1.
 	*
+	*  Only the smaller partition is sorted recursively; the larger one is
+	*  sorted by the loop, so the recursion is at most log n deep.
+	*
 	*  @param a       an integer array
 	*  @param lo0     left boundary of array partition
 	*  @param hi0     right boundary of array partition
 	**/
 	private static void quicksort(Kedge a[], int lo0, int hi0) {
-		int lo = lo0;
-		int hi = hi0;
-		int mid;
-		
-		if (hi0 > lo0) {
+		while (hi0 > lo0) {
+			int lo = lo0;
+			int hi = hi0;
 	   // Arbitrarily establishing partition element as the midpoint of
 	   // the array.
-			swapReferences(a, lo0, (lo0 + hi0)/2);
-			mid = a[(lo0 + hi0) / 2].weight;
+			int mid = a[(lo0 + hi0) / 2].weight;
 	   // loop through the array until indices cross.
 			while (lo <= hi) {
 	     // find the first element that is greater than or equal to 
@@ -133,15 +176,14 @@ public class Kruskal {
 					hi--;
 				}
 			}
-	   // If the right index has not reached the left side of array
-	   // we must now sort the left partition.
-			if (lo0 < hi) {
+	   // Recurse on the smaller partition and continue the loop on the
+	   // larger one.
+			if (hi - lo0 < hi0 - lo) {
 				quicksort(a, lo0, hi);
-			}
-	   // If the left index has not reached the right side of array
-	   // must now sort the right partition.
-			if (lo < hi0) {
+				lo0 = lo;
+			} else {
 				quicksort(a, lo, hi0);
+				hi0 = hi;
 			}
 		}
 	}
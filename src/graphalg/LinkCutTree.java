@@ -0,0 +1,267 @@
+/* LinkCutTree.java */
+
+package graphalg;
+
+/**
+ * A LinkCutTree is a forest of rooted trees over int nodes, each holding a
+ * long value, that supports linking two trees, cutting an edge, and asking
+ * for the node of largest value on the path between two nodes, each in
+ * O(log n) amortized time (Sleator and Tarjan).  Every tree is stored as a
+ * set of preferred paths, each path a splay tree ordered by depth; a
+ * "reversed" flag on a splay node lets any node be made the root of its tree.
+ *
+ * To find the heaviest edge on a path, give each edge of the represented
+ * forest its own node, placed between the nodes of its two endpoints, and
+ * give the endpoint nodes a value below every edge's.
+ *
+ * Nodes are created with newNode() and may be recycled with freeNode() once
+ * they have been cut from every other node.
+ */
+
+class LinkCutTree {
+	private int[] left;
+	private int[] right;
+	private int[] parent;			//splay parent, or path-parent if this is a splay root;
+	private boolean[] reversed;
+	private long[] value;
+	private int[] max;				//node of largest value in this splay subtree;
+	private int numNodes;
+	private int[] free;				//nodes released by freeNode();
+	private int numFree;
+	private int[] stack;			//scratch for splay();
+
+	LinkCutTree(){
+		left = new int[16];
+		right = new int[16];
+		parent = new int[16];
+		reversed = new boolean[16];
+		value = new long[16];
+		max = new int[16];
+		free = new int[16];
+		stack = new int[16];
+	}
+
+	// newNode returns a node, alone in its own tree, holding value v;
+	int newNode(long v){
+		int x;
+		if (numFree>0){
+			numFree--;
+			x = free[numFree];
+		} else {
+			if (numNodes==left.length){
+				int size = 2*numNodes;
+				left = copyOf(left, size);
+				right = copyOf(right, size);
+				parent = copyOf(parent, size);
+				value = copyOf(value, size);
+				max = copyOf(max, size);
+				boolean[] temp = new boolean[size];
+				System.arraycopy(reversed, 0, temp, 0, numNodes);
+				reversed = temp;
+			}
+			x = numNodes;
+			numNodes++;
+		}
+		left[x] = -1;
+		right[x] = -1;
+		parent[x] = -1;
+		reversed[x] = false;
+		value[x] = v;
+		max[x] = x;
+		return x;
+	}
+
+	// freeNode recycles x, which must be alone in its tree;
+	void freeNode(int x){
+		if (numFree==free.length){
+			free = copyOf(free, 2*numFree);
+		}
+		free[numFree] = x;
+		numFree++;
+	}
+
+	// value returns the value of x;
+	long value(int x){
+		return value[x];
+	}
+
+	// setValue changes the value of x;
+	void setValue(int x, long v){
+		access(x);
+		value[x] = v;
+		update(x);
+	}
+
+	// link joins the trees of x and y, which must be different, with an edge (x, y);
+	void link(int x, int y){
+		makeRoot(x);
+		parent[x] = y;
+	}
+
+	// cut removes the edge (x, y), which must exist;
+	void cut(int x, int y){
+		makeRoot(x);
+		access(y);
+		// now the path is x, y, so x is y's only left child;
+		left[y] = -1;
+		parent[x] = -1;
+		update(y);
+	}
+
+	// connected returns true if x and y are in the same tree;
+	boolean connected(int x, int y){
+		return x==y || findRoot(x)==findRoot(y);
+	}
+
+	// pathMax returns the node of largest value on the path from x to y, or -1 if they are not connected;
+	int pathMax(int x, int y){
+		makeRoot(x);
+		if (x!=y && findRoot(y)!=x){
+			return -1;
+		}
+		access(y);
+		return max[y];
+	}
+
+	// isSplayRoot returns true if x is the root of its splay tree;
+	private boolean isSplayRoot(int x){
+		int p = parent[x];
+		return p<0 || (left[p]!=x && right[p]!=x);
+	}
+
+	// update recomputes max[x] from x and its children;
+	private void update(int x){
+		int m = x;
+		int l = left[x];
+		int r = right[x];
+		if (l>=0 && value[max[l]]>value[m]){
+			m = max[l];
+		}
+		if (r>=0 && value[max[r]]>value[m]){
+			m = max[r];
+		}
+		max[x] = m;
+	}
+
+	// push hands x's reversed flag down to its children;
+	private void push(int x){
+		if (reversed[x]){
+			int temp = left[x];
+			left[x] = right[x];
+			right[x] = temp;
+			if (left[x]>=0){
+				reversed[left[x]] = !reversed[left[x]];
+			}
+			if (right[x]>=0){
+				reversed[right[x]] = !reversed[right[x]];
+			}
+			reversed[x] = false;
+		}
+	}
+
+	// rotate moves x above its parent;
+	private void rotate(int x){
+		int p = parent[x];
+		int g = parent[p];
+		boolean pIsRoot = isSplayRoot(p);
+		if (left[p]==x){
+			left[p] = right[x];
+			if (right[x]>=0){
+				parent[right[x]] = p;
+			}
+			right[x] = p;
+		} else {
+			right[p] = left[x];
+			if (left[x]>=0){
+				parent[left[x]] = p;
+			}
+			left[x] = p;
+		}
+		parent[p] = x;
+		parent[x] = g;
+		if (!pIsRoot){
+			if (left[g]==p){
+				left[g] = x;
+			} else {
+				right[g] = x;
+			}
+		}
+		update(p);
+		update(x);
+	}
+
+	// splay moves x to the root of its splay tree;
+	private void splay(int x){
+		// push the reversed flags down from the splay root first, top down;
+		int depth = 0;
+		for (int y=x;;y=parent[y]){
+			if (depth==stack.length){
+				stack = copyOf(stack, 2*depth);
+			}
+			stack[depth] = y;
+			depth++;
+			if (isSplayRoot(y)){
+				break;
+			}
+		}
+		for (int i=depth-1;i>=0;i--){
+			push(stack[i]);
+		}
+		while (!isSplayRoot(x)){
+			int p = parent[x];
+			if (!isSplayRoot(p)){
+				int g = parent[p];
+				if ((left[g]==p)==(left[p]==x)){
+					rotate(p);
+				} else {
+					rotate(x);
+				}
+			}
+			rotate(x);
+		}
+	}
+
+	// access makes the path from x's tree root to x preferred, leaving x the root of its splay tree;
+	private void access(int x){
+		int last = -1;
+		for (int y=x;y>=0;y=parent[y]){
+			splay(y);
+			right[y] = last;
+			update(y);
+			last = y;
+		}
+		splay(x);
+	}
+
+	// makeRoot makes x the root of its tree;
+	private void makeRoot(int x){
+		access(x);
+		reversed[x] = !reversed[x];
+	}
+
+	// findRoot returns the root of x's tree;
+	private int findRoot(int x){
+		access(x);
+		int r = x;
+		push(r);
+		while (left[r]>=0){
+			r = left[r];
+			push(r);
+		}
+		splay(r);
+		return r;
+	}
+
+	// copyOf returns a copy of a with the given length;
+	private static int[] copyOf(int[] a, int length){
+		int[] temp = new int[length];
+		System.arraycopy(a, 0, temp, 0, Math.min(a.length, length));
+		return temp;
+	}
+
+	private static long[] copyOf(long[] a, int length){
+		long[] temp = new long[length];
+		System.arraycopy(a, 0, temp, 0, Math.min(a.length, length));
+		return temp;
+	}
+}
@@ -0,0 +1,151 @@
+/* LongTreap.java */
+
+package graphalg;
+
+/**
+ * A LongTreap is an ordered set of int ids, each with a distinct long key,
+ * kept as a treap:  a binary search tree on the keys that is also a heap on
+ * random priorities, and so is balanced in expectation.  It supports
+ * insertion, removal, and walking the ids in key order, each step in
+ * O(log n) expected time.  Ids index the treap's arrays directly, so they
+ * should be dense.
+ */
+
+class LongTreap {
+	private int[] left;
+	private int[] right;
+	private int[] priority;
+	private long[] key;
+	private int root;
+	private int size;
+	private int seed;
+
+	LongTreap(){
+		left = new int[16];
+		right = new int[16];
+		priority = new int[16];
+		key = new long[16];
+		root = -1;
+		seed = 0x2545f491;
+	}
+
+	// size returns the number of ids in the set;
+	int size(){
+		return size;
+	}
+
+	// insert adds id x, which must not be in the set, with key k;
+	void insert(int x, long k){
+		if (x>=left.length){
+			int length = Math.max(x+1, 2*left.length);
+			left = copyOf(left, length);
+			right = copyOf(right, length);
+			priority = copyOf(priority, length);
+			long[] temp = new long[length];
+			System.arraycopy(key, 0, temp, 0, key.length);
+			key = temp;
+		}
+		left[x] = -1;
+		right[x] = -1;
+		key[x] = k;
+		// xorshift;
+		seed ^= seed<<13;
+		seed ^= seed>>>17;
+		seed ^= seed<<5;
+		priority[x] = seed;
+		root = insert(root, x);
+		size++;
+	}
+
+	// remove removes id x, which must be in the set;
+	void remove(int x){
+		root = remove(root, x);
+		size--;
+	}
+
+	// next returns the id of smallest key greater than that of x, or -1 if there is none;
+	int next(int x){
+		return after(key[x]);
+	}
+
+	// after returns the id of smallest key greater than k, or -1 if there is none;
+	int after(long k){
+		int best = -1;
+		int t = root;
+		while (t>=0){
+			if (key[t]>k){
+				best = t;
+				t = left[t];
+			} else {
+				t = right[t];
+			}
+		}
+		return best;
+	}
+
+	// insert adds x to the subtree rooted at t, returning the subtree's new root;
+	private int insert(int t, int x){
+		if (t<0){
+			return x;
+		}
+		if (key[x]<key[t]){
+			left[t] = insert(left[t], x);
+			if (priority[left[t]]>priority[t]){
+				t = rotateRight(t);
+			}
+		} else {
+			right[t] = insert(right[t], x);
+			if (priority[right[t]]>priority[t]){
+				t = rotateLeft(t);
+			}
+		}
+		return t;
+	}
+
+	// remove takes x out of the subtree rooted at t, returning the subtree's new root;
+	private int remove(int t, int x){
+		if (t==x){
+			if (left[t]<0){
+				return right[t];
+			}
+			if (right[t]<0){
+				return left[t];
+			}
+			// rotate the child of higher priority up, then remove x from below it;
+			if (priority[left[t]]>priority[right[t]]){
+				t = rotateRight(t);
+				right[t] = remove(right[t], x);
+			} else {
+				t = rotateLeft(t);
+				left[t] = remove(left[t], x);
+			}
+		} else if (key[x]<key[t]){
+			left[t] = remove(left[t], x);
+		} else {
+			right[t] = remove(right[t], x);
+		}
+		return t;
+	}
+
+	// rotateRight lifts t's left child above t and returns it;
+	private int rotateRight(int t){
+		int l = left[t];
+		left[t] = right[l];
+		right[l] = t;
+		return l;
+	}
+
+	// rotateLeft lifts t's right child above t and returns it;
+	private int rotateLeft(int t){
+		int r = right[t];
+		right[t] = left[r];
+		left[r] = t;
+		return r;
+	}
+
+	private static int[] copyOf(int[] a, int length){
+		int[] temp = new int[length];
+		System.arraycopy(a, 0, temp, 0, a.length);
+		return temp;
+	}
+}
@@ -0,0 +1,101 @@
+/* MinSpanTree.java */
+
+package graphalg;
+
+import graph.*;
+
+/**
+ * The MinSpanTree class is the entry point for computing minimum spanning
+ * trees when the caller does not care which algorithm is used.  It picks
+ * Prim or Kruskal by the ratio of edges to vertices:  Kruskal's edge sort is
+ * O(|E|) and touches every edge once, which wins on sparse graphs; Prim
+ * reads edges in place and only touches the heap for edges that improve a
+ * key, which wins once each vertex has many edges.  MstBench measures the
+ * crossover.
+ *
+ * Every engine returns the same forest, so the choice only affects speed.
+ */
+
+public class MinSpanTree {
+	public static final int KRUSKAL = 0;
+	public static final int PRIM = 1;
+
+	// at or above this many edges per vertex, Prim is faster (see MstBench);
+	static final int PRIM_RATIO = 16;
+
+  /**
+   * minSpanTree() returns a WUGraph that represents the minimum spanning tree
+   * of the WUGraph g, computed by the engine choose() picks.  The original
+   * WUGraph g is NOT changed.
+   *
+   * @param g The weighted, undirected graph whose MST we want to compute.
+   * @return A newly constructed WUGraph representing the MST of g.
+   */
+	public static WUGraph minSpanTree(WUGraph g){
+		return minSpanTree(g.freeze());
+	}
+
+  /**
+   * minSpanTree() returns a WUGraph that represents the minimum spanning tree
+   * of the snapshot g, computed by the engine choose() picks.
+   *
+   * @param g The snapshot whose MST we want to compute.
+   * @return A newly constructed WUGraph representing the MST of g.
+   */
+	public static WUGraph minSpanTree(CsrGraph g){
+		return minSpanTree(g, choose(g));
+	}
+
+  /**
+   * minSpanTree() returns a WUGraph that represents the minimum spanning tree
+   * of the snapshot g, computed by "engine", either KRUSKAL or PRIM.
+   *
+   * @param g The snapshot whose MST we want to compute.
+   * @param engine The algorithm to use.
+   * @return A newly constructed WUGraph representing the MST of g.
+   */
+	public static WUGraph minSpanTree(CsrGraph g, int engine){
+		return minSpanForest(g, engine).toGraph();
+	}
+
+  /**
+   * minSpanForest() returns the minimum spanning forest of the WUGraph g as
+   * an MstResult, computed by the engine choose() picks, without building a
+   * WUGraph for it.  The original WUGraph g is NOT changed.
+   *
+   * @param g The weighted, undirected graph whose MST we want to compute.
+   * @return The minimum spanning forest of g.
+   */
+	public static MstResult minSpanForest(WUGraph g){
+		CsrGraph csr = g.freeze();
+		return minSpanForest(csr, choose(csr));
+	}
+
+  /**
+   * minSpanForest() returns the minimum spanning forest of the snapshot g as
+   * an MstResult, computed by "engine", either KRUSKAL or PRIM.
+   *
+   * @param g The snapshot whose MST we want to compute.
+   * @param engine The algorithm to use.
+   * @return The minimum spanning forest of g.
+   */
+	public static MstResult minSpanForest(CsrGraph g, int engine){
+		if (engine==PRIM){
+			return Prim.minSpanForest(g);
+		}
+		return Kruskal.minSpanForest(g);
+	}
+
+  /**
+   * choose() returns the engine, KRUSKAL or PRIM, expected to be faster on
+   * the snapshot g.
+   *
+   * Running time:  O(1).
+   */
+	public static int choose(CsrGraph g){
+		if (g.edgeCount()>=(long)PRIM_RATIO*g.vertexCount()){
+			return PRIM;
+		}
+		return KRUSKAL;
+	}
+}
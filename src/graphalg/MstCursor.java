@@ -0,0 +1,205 @@
+/* MstCursor.java */
+
+package graphalg;
+
+import graph.*;
+import set.*;
+
+/**
+ * An MstCursor walks the edges of the minimum spanning forest of a graph in
+ * the order Kruskal's algorithm chooses them, by weight and then by edge id,
+ * finding each one only when next() asks for it.  Typical use:
+ *
+ *   MstCursor c = new MstCursor(g);
+ *   while (c.next()) {
+ *     ... c.vertexU() ... c.vertexV() ... c.weight() ...
+ *   }
+ *
+ * Instead of sorting every edge, the constructor packs the edges into keys
+ * and arranges them as a binary heap, in O(|E|) time, and counts the
+ * components with one pass of unions, so that it knows how many edges the
+ * forest will have.  next() pops keys until it finds an edge joining two
+ * trees, and once the forest is complete it stops, leaving the heavier
+ * edges unsorted in the heap.  When the forest's heaviest edge is light
+ * compared to most edges, only a small part of the edges is ever popped;
+ * at worst, the cursor costs O(|E| log |E|).
+ *
+ * The first edges are available as soon as the cursor is built, so a
+ * consumer can start on them before the forest is finished.
+ */
+
+public class MstCursor {
+	private final CsrGraph g;
+	private final EdgeList edges;
+	private final long[] heap;			//packed (weight, edge id) keys, a binary min-heap;
+	private int heapSize;
+	private final DisjointSets sets;
+	private final int target;			//the number of edges in the forest;
+	private final int[] chosen;			//the ids of the edges found so far, in order;
+	private int count;
+	private long totalWeight;
+	private int edge;					//the current edge's id, or -1 before the first;
+
+  /**
+   * MstCursor() constructs a cursor over the minimum spanning forest of the
+   * WUGraph g.  The WUGraph g is NOT changed, and later changes to it are
+   * not seen.
+   *
+   * Running time:  O(|V| + |E|).
+   */
+	public MstCursor(WUGraph g){
+		this(g.freeze());
+	}
+
+  /**
+   * MstCursor() constructs a cursor over the minimum spanning forest of the
+   * snapshot g.
+   *
+   * Running time:  O(|V| + |E|).
+   */
+	public MstCursor(CsrGraph g){
+		this.g = g;
+		int n = g.vertexCount();
+		edges = EdgeList.of(g);
+		// count the components, stopping early if the graph turns out connected;
+		int components = n;
+		DisjointSets counter = new DisjointSets(n);
+		for (int e=0;e<edges.size && components>1;e++){
+			int root1 = counter.find(edges.u[e]);
+			int root2 = counter.find(edges.v[e]);
+			if (root1!=root2){
+				counter.union(root1, root2);
+				components--;
+			}
+		}
+		target = n-components;
+		heap = edges.sortKeys();
+		heapSize = heap.length;
+		for (int i=heapSize/2-1;i>=0;i--){
+			siftDown(i, heap[i]);
+		}
+		sets = new DisjointSets(n);
+		chosen = new int[target];
+		edge = -1;
+	}
+
+  /**
+   * next() moves to the next edge of the forest, returning false (and
+   * leaving the cursor exhausted) when the forest is complete.
+   *
+   * Running time:  O(k log |E|), where k is the number of edges popped.
+   */
+	public boolean next(){
+		while (count<target){
+			long key = heap[0];
+			heapSize--;
+			siftDown(0, heap[heapSize]);
+			int e = (int)key;
+			int root1 = sets.find(edges.u[e]);
+			int root2 = sets.find(edges.v[e]);
+			if (root1!=root2){
+				sets.union(root1, root2);
+				edge = e;
+				chosen[count] = e;
+				count++;
+				totalWeight += edges.w[e];
+				return true;
+			}
+		}
+		edge = -1;
+		return false;
+	}
+
+  /**
+   * u() returns the vertex id of the lower-numbered end of the current edge.
+   */
+	public int u(){
+		return edges.u[edge];
+	}
+
+  /**
+   * v() returns the vertex id of the higher-numbered end of the current edge.
+   */
+	public int v(){
+		return edges.v[edge];
+	}
+
+  /**
+   * vertexU() returns the vertex object at the u() end of the current edge.
+   */
+	public Object vertexU(){
+		return g.vertex(edges.u[edge]);
+	}
+
+  /**
+   * vertexV() returns the vertex object at the v() end of the current edge.
+   */
+	public Object vertexV(){
+		return g.vertex(edges.v[edge]);
+	}
+
+  /**
+   * weight() returns the weight of the current edge.
+   */
+	public int weight(){
+		return edges.w[edge];
+	}
+
+  /**
+   * edgeId() returns the snapshot's id of the current edge.
+   */
+	public int edgeId(){
+		return edge;
+	}
+
+  /**
+   * edgeCount() returns the number of edges next() has found so far.
+   */
+	public int edgeCount(){
+		return count;
+	}
+
+  /**
+   * totalWeight() returns the total weight of the edges found so far.
+   */
+	public long totalWeight(){
+		return totalWeight;
+	}
+
+  /**
+   * forestSize() returns the number of edges the whole forest has, which
+   * is |V| minus the number of connected components.
+   */
+	public int forestSize(){
+		return target;
+	}
+
+  /**
+   * finish() walks the rest of the forest and returns the whole of it,
+   * including the edges already walked, as an MstResult.
+   *
+   * Running time:  O(k log |E|), where k is the number of edges popped.
+   */
+	public MstResult finish(){
+		while (next()){
+			// each edge is recorded in chosen[] as it is found;
+		}
+		return new MstResult(g, edges, chosen, count);
+	}
+
+	// siftDown places key at position i of the heap, moving smaller children up;
+	private void siftDown(int i, long key){
+		while (2*i+1<heapSize){
+			int child = 2*i+1;
+			if (child+1<heapSize && heap[child+1]<heap[child]){
+				child++;
+			}
+			if (heap[child]>=key){
+				break;
+			}
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = key;
+	}
+}
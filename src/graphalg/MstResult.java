@@ -0,0 +1,192 @@
+/* MstResult.java */
+
+package graphalg;
+
+import graph.*;
+
+/**
+ * An MstResult is a minimum spanning forest in compact form:  its total
+ * weight, its component count, and its edges in three parallel int arrays,
+ * in the order Kruskal's algorithm chooses them.  Vertices are the dense ids
+ * of the snapshot the forest was computed on; the vertex objects themselves
+ * are looked up only when asked for.
+ *
+ * Building a WUGraph costs a hash table insertion per vertex and per edge,
+ * which can take longer than finding the forest, and most callers only want
+ * the weight or the edge list.  toGraph() builds the WUGraph on its first
+ * call only.
+ *
+ * The arrays returned are the result itself, not copies.  Do not modify
+ * them.
+ */
+
+public class MstResult {
+	private final CsrGraph g;
+	private final int[] u;				//the two ends of each forest edge, by vertex id,
+	private final int[] v;				//with u[i] <= v[i];
+	private final int[] w;
+	private final long totalWeight;
+	private Object[] vertexU;			//built by vertexU() and vertexV();
+	private Object[] vertexV;
+	private WUGraph graph;				//built by toGraph();
+
+	// MstResult takes the edges chosen[0...count-1] of "edges", a list of the edges of g;
+	MstResult(CsrGraph g, EdgeList edges, int[] chosen, int count){
+		this.g = g;
+		u = new int[count];
+		v = new int[count];
+		w = new int[count];
+		long total = 0;
+		for (int i=0;i<count;i++){
+			int e = chosen[i];
+			u[i] = edges.u[e];
+			v[i] = edges.v[e];
+			w[i] = edges.w[e];
+			total += w[i];
+		}
+		totalWeight = total;
+	}
+
+  /**
+   * totalWeight() returns the sum of the weights of the forest's edges.
+   *
+   * Running time:  O(1).
+   */
+	public long totalWeight(){
+		return totalWeight;
+	}
+
+  /**
+   * edgeCount() returns the number of edges in the forest.
+   *
+   * Running time:  O(1).
+   */
+	public int edgeCount(){
+		return u.length;
+	}
+
+  /**
+   * vertexCount() returns the number of vertices of the graph.
+   *
+   * Running time:  O(1).
+   */
+	public int vertexCount(){
+		return g.vertexCount();
+	}
+
+  /**
+   * componentCount() returns the number of connected components of the
+   * graph, which is also the number of trees in the forest.
+   *
+   * Running time:  O(1).
+   */
+	public int componentCount(){
+		return g.vertexCount()-u.length;
+	}
+
+  /**
+   * isSpanningTree() returns true if the graph is connected, so that the
+   * forest is a single tree.  A graph with no vertices is not connected.
+   *
+   * Running time:  O(1).
+   */
+	public boolean isSpanningTree(){
+		return componentCount()==1;
+	}
+
+  /**
+   * edgeU() returns the vertex ids of the lower-numbered ends of the edges.
+   *
+   * Running time:  O(1).
+   */
+	public int[] edgeU(){
+		return u;
+	}
+
+  /**
+   * edgeV() returns the vertex ids of the higher-numbered ends of the edges.
+   *
+   * Running time:  O(1).
+   */
+	public int[] edgeV(){
+		return v;
+	}
+
+  /**
+   * weights() returns the weights of the edges.
+   *
+   * Running time:  O(1).
+   */
+	public int[] weights(){
+		return w;
+	}
+
+  /**
+   * vertex() returns the vertex object of vertex id "id".
+   *
+   * Running time:  O(1).
+   */
+	public Object vertex(int id){
+		return g.vertex(id);
+	}
+
+  /**
+   * vertexU() returns the vertex objects at the edgeU() ends of the edges.
+   *
+   * Running time:  O(|E|) on the first call, O(1) after.
+   */
+	public Object[] vertexU(){
+		if (vertexU==null){
+			vertexU = vertices(u);
+		}
+		return vertexU;
+	}
+
+  /**
+   * vertexV() returns the vertex objects at the edgeV() ends of the edges.
+   *
+   * Running time:  O(|E|) on the first call, O(1) after.
+   */
+	public Object[] vertexV(){
+		if (vertexV==null){
+			vertexV = vertices(v);
+		}
+		return vertexV;
+	}
+
+  /**
+   * toGraph() returns a WUGraph holding every vertex of the graph and the
+   * edges of the forest.  It is built on the first call; later calls return
+   * the same WUGraph, including any changes the caller has made to it.
+   *
+   * Running time:  O(|V| + |E|) on the first call, O(1) after.
+   */
+	public WUGraph toGraph(){
+		if (graph==null){
+			int n = g.vertexCount();
+			WUGraph newGraph = new WUGraph(n, u.length);
+			Object[] vLst = new Object[n];
+			for (int i=0;i<n;i++){
+				vLst[i] = g.vertex(i);
+			}
+			newGraph.addVertices(vLst);
+			newGraph.addEdges(vertexU(), vertexV(), w);
+			graph = newGraph;
+		}
+		return graph;
+	}
+
+	// snapshot returns the snapshot the forest was computed on;
+	CsrGraph snapshot(){
+		return g;
+	}
+
+	// vertices maps an array of vertex ids to their vertex objects;
+	private Object[] vertices(int[] ids){
+		Object[] objects = new Object[ids.length];
+		for (int i=0;i<ids.length;i++){
+			objects[i] = g.vertex(ids[i]);
+		}
+		return objects;
+	}
+}
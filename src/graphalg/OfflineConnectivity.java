@@ -0,0 +1,295 @@
+/* OfflineConnectivity.java */
+
+package graphalg;
+
+import dict.*;
+import graph.*;
+import set.*;
+
+/**
+ * The OfflineConnectivity class answers "were u and v connected at that
+ * moment?" for a whole log of graph changes and queries at once.
+ *
+ * The caller replays the changes (addVertex, removeVertex, addEdge,
+ * removeEdge) and asks its questions (query) in order; nothing is answered
+ * until solve().  By then the span of queries during which each edge existed
+ * is known, so every edge is stored in the O(log Q) nodes of a segment tree
+ * over the Q queries that cover its span.  solve() walks the tree depth
+ * first, uniting the edges of each node in a RollbackDisjointSets on the way
+ * down and rolling them back on the way up, and answers each query at its
+ * leaf.  This takes O((E log Q + Q) log V) for E edge spans, instead of
+ * recomputing the components for every query.
+ *
+ * Weights play no part in connectivity, so edges are added without them, and
+ * adding an edge that is already present changes nothing.
+ */
+
+public class OfflineConnectivity {
+	private final OpenHashTable ids;		//maps each vertex ever seen to its int id;
+	private int numIds;
+	private final IntWUGraph live;			//the graph now; an edge's weight is the query its span starts at;
+
+	private int[] spanU;					//closed spans:  edge (spanU, spanV) existed for
+	private int[] spanV;					//queries spanLo...spanHi-1;
+	private int[] spanLo;
+	private int[] spanHi;
+	private int numSpans;
+
+	private int[] queryU;					//the two ids of each query, -1 for a non-vertex;
+	private int[] queryV;
+	private int numQueries;
+
+	// the segment tree:  edges of each node, in linked lists threaded through arrays;
+	private int[] head;
+	private int[] nextEdge;
+	private int[] edgeU;
+	private int[] edgeV;
+	private int numEdges;
+
+  /**
+   * OfflineConnectivity() starts a log from an empty graph.
+   */
+	public OfflineConnectivity(){
+		ids = new OpenHashTable();
+		live = new IntWUGraph();
+		spanU = new int[16];
+		spanV = new int[16];
+		spanLo = new int[16];
+		spanHi = new int[16];
+		queryU = new int[16];
+		queryV = new int[16];
+	}
+
+  /**
+   * OfflineConnectivity() starts a log from the current vertices and edges
+   * of g.  The WUGraph g is NOT changed, and later changes to g are not
+   * seen; they must be replayed through this object.
+   */
+	public OfflineConnectivity(WUGraph g){
+		this();
+		Object[] vertices = g.getVertices();
+		for (int i=0;i<vertices.length;i++){
+			addVertex(vertices[i]);
+		}
+		for (int i=0;i<vertices.length;i++){
+			Neighbors neighbors = g.getNeighbors(vertices[i]);
+			if (neighbors!=null){
+				for (int j=0;j<neighbors.neighborList.length;j++){
+					addEdge(vertices[i], neighbors.neighborList[j]);
+				}
+			}
+		}
+	}
+
+	// id returns the int id of "vertex", or -1 if it has never been seen;
+	private int id(Object vertex){
+		Object id = ids.get(vertex);
+		return (id==null) ? -1 : ((Integer)id).intValue();
+	}
+
+	// liveId returns the int id of "vertex", or -1 if it is not a vertex now;
+	private int liveId(Object vertex){
+		int id = id(vertex);
+		return (id>=0 && live.isVertex(id)) ? id : -1;
+	}
+
+  /**
+   * addVertex() records that "vertex" became a vertex.  If it already is
+   * one, nothing changes.
+   *
+   * Running time:  O(1) amortized.
+   */
+	public void addVertex(Object vertex){
+		int id = id(vertex);
+		if (id<0){
+			id = numIds;
+			numIds++;
+			ids.insert(vertex, Integer.valueOf(id));
+		}
+		live.addVertex(id);
+	}
+
+  /**
+   * removeVertex() records that "vertex" and all its edges were removed.  If
+   * it is not a vertex, nothing changes.
+   *
+   * Running time:  O(d), where d is the degree of "vertex".
+   */
+	public void removeVertex(Object vertex){
+		int id = liveId(vertex);
+		if (id<0){
+			return;
+		}
+		IntNeighbors neighbors = live.getNeighbors(id);
+		if (neighbors!=null){
+			for (int i=0;i<neighbors.neighborList.length;i++){
+				closeSpan(id, neighbors.neighborList[i], neighbors.weightList[i]);
+			}
+		}
+		live.removeVertex(id);
+	}
+
+  /**
+   * addEdge() records that edge (u, v) was added.  If u or v is not a vertex,
+   * or (u, v) is already an edge, nothing changes.
+   *
+   * Running time:  O(1) amortized.
+   */
+	public void addEdge(Object u, Object v){
+		int a = liveId(u);
+		int b = liveId(v);
+		if (a>=0 && b>=0 && !live.isEdge(a, b)){
+			live.addEdge(a, b, numQueries);
+		}
+	}
+
+  /**
+   * removeEdge() records that edge (u, v) was removed.  If (u, v) is not an
+   * edge, nothing changes.
+   *
+   * Running time:  O(1) amortized.
+   */
+	public void removeEdge(Object u, Object v){
+		int a = liveId(u);
+		int b = liveId(v);
+		if (a>=0 && b>=0 && live.isEdge(a, b)){
+			closeSpan(a, b, live.weight(a, b));
+			live.removeEdge(a, b);
+		}
+	}
+
+  /**
+   * query() records the question "are u and v connected now?" and returns
+   * its number, which indexes its answer in the array solve() returns.
+   * A vertex is connected to itself, and a non-vertex to nothing.
+   *
+   * Running time:  O(1) amortized.
+   */
+	public int query(Object u, Object v){
+		if (numQueries==queryU.length){
+			queryU = grow(queryU);
+			queryV = grow(queryV);
+		}
+		queryU[numQueries] = liveId(u);
+		queryV[numQueries] = liveId(v);
+		numQueries++;
+		return numQueries-1;
+	}
+
+  /**
+   * queryCount() returns the number of queries recorded so far.
+   */
+	public int queryCount(){
+		return numQueries;
+	}
+
+  /**
+   * solve() returns the answers to every query recorded so far, in order.
+   * More changes and queries may be recorded afterward, and solve() called
+   * again.
+   *
+   * Running time:  O((S log Q + Q) log V), for S edge spans and Q queries.
+   */
+	public boolean[] solve(){
+		boolean[] answers = new boolean[numQueries];
+		if (numQueries==0){
+			return answers;
+		}
+		head = new int[4*numQueries];
+		for (int i=0;i<head.length;i++){
+			head[i] = -1;
+		}
+		nextEdge = new int[16];
+		edgeU = new int[16];
+		edgeV = new int[16];
+		numEdges = 0;
+		for (int i=0;i<numSpans;i++){
+			insert(1, 0, numQueries, spanLo[i], spanHi[i], spanU[i], spanV[i]);
+		}
+		// the edges present now have spans that run to the last query;
+		int[] vertices = live.getVertices();
+		for (int i=0;i<vertices.length;i++){
+			IntNeighbors neighbors = live.getNeighbors(vertices[i]);
+			if (neighbors!=null){
+				for (int j=0;j<neighbors.neighborList.length;j++){
+					if (vertices[i]<neighbors.neighborList[j] && neighbors.weightList[j]<numQueries){
+						insert(1, 0, numQueries, neighbors.weightList[j], numQueries,
+							   vertices[i], neighbors.neighborList[j]);
+					}
+				}
+			}
+		}
+		walk(1, 0, numQueries, new RollbackDisjointSets(numIds), answers);
+		head = null;
+		nextEdge = null;
+		edgeU = null;
+		edgeV = null;
+		return answers;
+	}
+
+	// closeSpan records that edge (u, v), present since query "from", is gone;
+	private void closeSpan(int u, int v, int from){
+		if (u==v || from==numQueries){
+			return;		// a self-edge connects nothing, and an empty span covers no query;
+		}
+		if (numSpans==spanU.length){
+			spanU = grow(spanU);
+			spanV = grow(spanV);
+			spanLo = grow(spanLo);
+			spanHi = grow(spanHi);
+		}
+		spanU[numSpans] = u;
+		spanV[numSpans] = v;
+		spanLo[numSpans] = from;
+		spanHi[numSpans] = numQueries;
+		numSpans++;
+	}
+
+	// insert adds edge (u, v) to the nodes under "node" (covering queries lo...hi-1) that cover from...to-1;
+	private void insert(int node, int lo, int hi, int from, int to, int u, int v){
+		if (to<=lo || hi<=from){
+			return;
+		}
+		if (from<=lo && hi<=to){
+			if (numEdges==edgeU.length){
+				nextEdge = grow(nextEdge);
+				edgeU = grow(edgeU);
+				edgeV = grow(edgeV);
+			}
+			edgeU[numEdges] = u;
+			edgeV[numEdges] = v;
+			nextEdge[numEdges] = head[node];
+			head[node] = numEdges;
+			numEdges++;
+			return;
+		}
+		int mid = (lo+hi)>>>1;
+		insert(2*node, lo, mid, from, to, u, v);
+		insert(2*node+1, mid, hi, from, to, u, v);
+	}
+
+	// walk unites the edges of "node", answers or descends, then rolls the unions back;
+	private void walk(int node, int lo, int hi, RollbackDisjointSets sets, boolean[] answers){
+		sets.checkpoint();
+		for (int e=head[node];e>=0;e=nextEdge[e]){
+			sets.union(edgeU[e], edgeV[e]);
+		}
+		if (hi-lo==1){
+			int u = queryU[lo];
+			int v = queryV[lo];
+			answers[lo] = u>=0 && v>=0 && sets.find(u)==sets.find(v);
+		} else {
+			int mid = (lo+hi)>>>1;
+			walk(2*node, lo, mid, sets, answers);
+			walk(2*node+1, mid, hi, sets, answers);
+		}
+		sets.rollback();
+	}
+
+	// grow returns a copy of a with twice the length;
+	private static int[] grow(int[] a){
+		int[] temp = new int[2*a.length];
+		System.arraycopy(a, 0, temp, 0, a.length);
+		return temp;
+	}
+}
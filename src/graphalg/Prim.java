@@ -0,0 +1,124 @@
+/* Prim.java */
+
+package graphalg;
+
+import graph.*;
+
+/**
+ * The Prim class computes minimum spanning trees with Prim's algorithm.  It
+ * grows a tree from each vertex not yet reached, reading edges straight from
+ * the adjacency arrays of a CsrGraph, and keeps the vertices next to the tree
+ * in an IndexedDaryHeap keyed by their cheapest connecting edge.  Unlike
+ * Kruskal it never lists or sorts all the edges, which pays off on dense
+ * graphs.
+ *
+ * Edges are compared as packed (weight, edge id) longs, the order Kruskal
+ * uses, so the result is the same forest Kruskal.minSpanTree() returns.
+ */
+
+public class Prim {
+	private static final int ARITY = 4;
+
+  /**
+   * minSpanTree() returns a WUGraph that represents the minimum spanning tree
+   * of the WUGraph g.  The original WUGraph g is NOT changed.
+   *
+   * @param g The weighted, undirected graph whose MST we want to compute.
+   * @return A newly constructed WUGraph representing the MST of g.
+   */
+	public static WUGraph minSpanTree(WUGraph g){
+		return minSpanTree(g.freeze());
+	}
+
+  /**
+   * minSpanForest() returns the minimum spanning forest of the WUGraph g as
+   * an MstResult, without building a WUGraph for it.  The original WUGraph g
+   * is NOT changed.
+   *
+   * @param g The weighted, undirected graph whose MST we want to compute.
+   * @return The minimum spanning forest of g.
+   */
+	public static MstResult minSpanForest(WUGraph g){
+		return minSpanForest(g.freeze());
+	}
+
+  /**
+   * minSpanTree() returns a WUGraph that represents the minimum spanning tree
+   * of the snapshot g.
+   *
+   * Running time:  O(|E| log |V|) in the worst case, but only the edges that
+   * improve a vertex's key touch the heap.
+   *
+   * @param g The snapshot whose MST we want to compute.
+   * @return A newly constructed WUGraph representing the MST of g.
+   */
+	public static WUGraph minSpanTree(CsrGraph g){
+		return minSpanForest(g).toGraph();
+	}
+
+  /**
+   * minSpanForest() returns the minimum spanning forest of the snapshot g as
+   * an MstResult, computed as minSpanTree() computes it.
+   *
+   * @param g The snapshot whose MST we want to compute.
+   * @return The minimum spanning forest of g.
+   */
+	public static MstResult minSpanForest(CsrGraph g){
+		int n = g.vertexCount();
+		int[] offsets = g.offsets();
+		int[] targets = g.targets();
+		int[] weights = g.weights();
+		int[] edgeIds = g.edgeIds();
+		IndexedDaryHeap heap = new IndexedDaryHeap(n, ARITY);
+		boolean[] inTree = new boolean[n];
+		int[] from = new int[n];			//tree end of each heap vertex's key edge;
+		EdgeList tree = new EdgeList(Math.max(n-1, 0));
+		int[] ids = new int[tree.size];
+		int count = 0;
+		for (int start=0;start<n;start++){
+			if (inTree[start]){
+				continue;
+			}
+			// grow the tree of start's component; a vertex's key is the edge that would add it;
+			int v = start;
+			while (true){
+				inTree[v] = true;
+				for (int k=offsets[v];k<offsets[v+1];k++){
+					int t = targets[k];
+					if (!inTree[t]){
+						long key = ((long)weights[k]<<32) | edgeIds[k];
+						if (!heap.contains(t)){
+							heap.insert(t, key);
+							from[t] = v;
+						} else if (key<heap.key(t)){
+							heap.decreaseKey(t, key);
+							from[t] = v;
+						}
+					}
+				}
+				if (heap.isEmpty()){
+					break;
+				}
+				long key = heap.minKey();
+				v = heap.removeMin();
+				tree.u[count] = Math.min(v, from[v]);
+				tree.v[count] = Math.max(v, from[v]);
+				tree.w[count] = (int)(key>>32);
+				ids[count] = (int)key;
+				count++;
+			}
+		}
+		// add the edges in the order Kruskal would, by weight and then by edge id,
+		// so the two trees match exactly; sort stably by id, then by weight;
+		int[] byId = EdgeSort.order(ids, count);
+		int[] w = new int[count];
+		for (int i=0;i<count;i++){
+			w[i] = tree.w[byId[i]];
+		}
+		int[] byWeight = EdgeSort.order(w, count);
+		for (int i=0;i<count;i++){
+			byWeight[i] = byId[byWeight[i]];
+		}
+		return new MstResult(g, tree, byWeight, count);
+	}
+}
@@ -23,6 +23,7 @@ public class DList extends List {
 
   protected DListNode head;
   public DListNode myNode;
+  public DListNode vertexNode;    // for a WUGraph adjacency list, its vertex's node in the user-level vertex list
 
   /* DList invariants:
    *  1)  head != null.
@@ -66,6 +67,7 @@ public class DList extends List {
     head.prev=head;
     size=0; 
     myNode = null;
+    vertexNode = null;
   }
 
 
@@ -0,0 +1,127 @@
+/* ConcurrentDisjointSets.java */
+
+package set;
+
+import dict.Hashing;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ *  A disjoint sets ADT that any number of threads may use at once, without
+ *  locks.  Each element's parent is kept in an AtomicIntegerArray.  union()
+ *  links one root under another with a compare-and-set, which fails (and is
+ *  retried) if another thread linked that root first.  find() uses path
+ *  halving, also with compare-and-set, so a thread that loses a race simply
+ *  leaves the path a little longer; it never waits for another thread.
+ *
+ *  Roots are linked by a fixed random priority instead of by size, since
+ *  sizes cannot be kept exact without locking.  Random linking keeps the
+ *  trees shallow in expectation.
+ *
+ *  Unlike DisjointSets, union() takes any two elements, finds their roots
+ *  itself, and reports whether the two were in different sets.
+ *
+ *  Elements are represented by ints, numbered from zero.
+ **/
+
+public class ConcurrentDisjointSets {
+
+  private final AtomicIntegerArray parent;
+  private final int[] priority;
+
+  /**
+   *  Construct a disjoint sets object.
+   *
+   *  @param numElements the initial number of elements--also the initial
+   *  number of disjoint sets, since every element is initially in its own set.
+   **/
+  public ConcurrentDisjointSets(int numElements) {
+    parent = new AtomicIntegerArray(numElements);
+    priority = new int[numElements];
+    for (int i = 0; i < numElements; i++) {
+      parent.set(i, i);
+      // a fixed pseudorandom priority:  i scrambled by the hash tables' mixer;
+      priority[i] = Hashing.mix(i, 0);
+    }
+  }
+
+  // below returns true if root x should be linked under root y;
+  private boolean below(int x, int y) {
+    return priority[x] < priority[y] || (priority[x] == priority[y] && x < y);
+  }
+
+  /**
+   *  find() finds the (int) name of the set containing a given element.
+   *  Halves the path along the way.  If other threads are calling union(),
+   *  the root returned may stop being a root at any moment.
+   *
+   *  @param x the element sought.
+   *  @return the set containing x.
+   **/
+  public int find(int x) {
+    while (true) {
+      int p = parent.get(x);
+      int grandparent = parent.get(p);
+      if (p == grandparent) {
+        return p;
+      }
+      // make x skip its parent; if another thread changed it, that is fine too;
+      parent.compareAndSet(x, p, grandparent);
+      x = grandparent;
+    }
+  }
+
+  /**
+   *  union() unites the sets containing x and y into a single set.
+   *
+   *  @param x an element of the first set.
+   *  @param y an element of the other set.
+   *  @return true if x and y were in different sets, so that this call
+   *  united them; false if they were already in the same set.
+   **/
+  public boolean union(int x, int y) {
+    while (true) {
+      x = find(x);
+      y = find(y);
+      if (x == y) {
+        return false;
+      }
+      if (below(y, x)) {
+        int temp = x;
+        x = y;
+        y = temp;
+      }
+      // link x under y, unless another thread has linked x under something already;
+      if (parent.compareAndSet(x, x, y)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   *  sameSet() returns true if x and y are in the same set.  The answer is
+   *  exact at some moment during the call.
+   *
+   *  @param x an element.
+   *  @param y another element.
+   **/
+  public boolean sameSet(int x, int y) {
+    while (true) {
+      x = find(x);
+      y = find(y);
+      if (x == y) {
+        return true;
+      }
+      // if x is still a root, x and y were apart when y's root was found;
+      if (parent.get(x) == x) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   *  size() returns the number of elements.
+   **/
+  public int size() {
+    return parent.length();
+  }
+}
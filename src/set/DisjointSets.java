@@ -67,6 +67,22 @@ public class DisjointSets {
     }
   }
 
+  /**
+   *  root() finds the (int) name of the set containing a given element, like
+   *  find(), but without path compression.  Since it does not change the
+   *  data structure, any number of threads may call root() at once, as long
+   *  as no thread is calling union() or find().
+   *
+   *  @param x the element sought.
+   *  @return the set containing x.
+   **/
+  public int root(int x) {
+    while (array[x] >= 0) {
+      x = array[x];
+    }
+    return x;
+  }
+
   /**
    *  main() is test code.  All the find()s on the same output line should be
    *  identical.
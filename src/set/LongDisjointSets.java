@@ -0,0 +1,196 @@
+/* LongDisjointSets.java */
+
+package set;
+
+import java.util.Arrays;
+
+/**
+ *  A disjoint sets ADT for very large numbers of elements.  Performs
+ *  union-by-size and path halving, both without recursion, so no chain of
+ *  any length can overflow the stack.
+ *
+ *  Elements are represented by longs, numbered from zero, so there may be
+ *  more than 2^31 of them.  They are stored in segments of 2^20 longs each,
+ *  so no single array has to hold them all.  The last segment holds only as
+ *  many longs as it needs, doubling as elements are added, the way the array
+ *  of segments does; a small structure takes a small amount of memory, not a
+ *  whole segment's 8 MB.  As in DisjointSets, the entry of
+ *  a root holds minus the size of its set, and the entry of any other element
+ *  holds its parent.
+ *
+ *  Unlike DisjointSets, union() takes any two elements, finds their roots
+ *  itself, and reports whether the two were in different sets.
+ **/
+
+public class LongDisjointSets {
+
+  private static final int SEGMENT_BITS = 20;
+  private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+  private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+  private static final int MIN_SEGMENT = 16;
+
+  private long[][] segments;
+  private long numElements;
+  private long numSets;
+
+  /**
+   *  Construct a disjoint sets object with no elements.
+   **/
+  public LongDisjointSets() {
+    this(0);
+  }
+
+  /**
+   *  Construct a disjoint sets object.
+   *
+   *  @param numElements the initial number of elements--also the initial
+   *  number of disjoint sets, since every element is initially in its own set.
+   **/
+  public LongDisjointSets(long numElements) {
+    segments = new long[4][];
+    addElements(numElements);
+  }
+
+  // get returns the entry of element x;
+  private long get(long x) {
+    return segments[(int) (x >>> SEGMENT_BITS)][(int) x & SEGMENT_MASK];
+  }
+
+  // set sets the entry of element x;
+  private void set(long x, long value) {
+    segments[(int) (x >>> SEGMENT_BITS)][(int) x & SEGMENT_MASK] = value;
+  }
+
+  /**
+   *  addElements() adds "count" new elements, each in a set by itself.  The
+   *  new elements are numbered from the old elementCount() up.
+   *
+   *  @param count the number of elements to add.
+   *  @return the number of the first new element.
+   **/
+  public long addElements(long count) {
+    long first = numElements;
+    long end = numElements + count;
+    long neededSegments = (end + SEGMENT_SIZE - 1) >>> SEGMENT_BITS;
+    if (neededSegments > segments.length) {
+      int length = segments.length;
+      while (length < neededSegments) {
+        length *= 2;
+      }
+      long[][] temp = new long[length][];
+      System.arraycopy(segments, 0, temp, 0, segments.length);
+      segments = temp;
+    }
+    for (long x = first; x < end; ) {
+      int s = (int) (x >>> SEGMENT_BITS);
+      long segmentEnd = Math.min(end, ((long) s + 1) << SEGMENT_BITS);
+      int needed = (int) (segmentEnd - ((long) s << SEGMENT_BITS));
+      if (segments[s] == null || segments[s].length < needed) {
+        grow(s, needed);
+      }
+      Arrays.fill(segments[s], (int) x & SEGMENT_MASK, needed, -1);
+      x = segmentEnd;
+    }
+    numElements = end;
+    numSets += count;
+    return first;
+  }
+
+  // grow makes segment s at least "needed" longs long, doubling it (up to a full segment) and keeping its entries;
+  private void grow(int s, int needed) {
+    int length = (segments[s] == null) ? MIN_SEGMENT : segments[s].length;
+    while (length < needed) {
+      length *= 2;
+    }
+    long[] temp = new long[Math.min(length, SEGMENT_SIZE)];
+    if (segments[s] != null) {
+      System.arraycopy(segments[s], 0, temp, 0, segments[s].length);
+    }
+    segments[s] = temp;
+  }
+
+  /**
+   *  add() adds one new element, in a set by itself.
+   *
+   *  @return the number of the new element.
+   **/
+  public long add() {
+    return addElements(1);
+  }
+
+  /**
+   *  elementCount() returns the number of elements.
+   **/
+  public long elementCount() {
+    return numElements;
+  }
+
+  /**
+   *  componentCount() returns the number of disjoint sets.
+   **/
+  public long componentCount() {
+    return numSets;
+  }
+
+  /**
+   *  find() finds the (long) name of the set containing a given element.
+   *  Performs path halving along the way:  every other element on the path
+   *  is made to point to its grandparent.
+   *
+   *  @param x the element sought.
+   *  @return the set containing x.
+   **/
+  public long find(long x) {
+    long parent = get(x);
+    while (parent >= 0) {
+      long grandparent = get(parent);
+      if (grandparent < 0) {
+        return parent;                       // parent is the root; return it
+      }
+      set(x, grandparent);
+      x = grandparent;
+      parent = get(x);
+    }
+    return x;
+  }
+
+  /**
+   *  union() unites the sets containing x and y into a single set.  A
+   *  union-by-size heuristic is used to choose the new root.
+   *
+   *  @param x an element of the first set.
+   *  @param y an element of the other set.
+   *  @return true if x and y were in different sets, so that this call
+   *  united them; false if they were already in the same set.
+   **/
+  public boolean union(long x, long y) {
+    long root1 = find(x);
+    long root2 = find(y);
+    if (root1 == root2) {
+      return false;
+    }
+    long size1 = get(root1);
+    long size2 = get(root2);
+    if (size2 < size1) {                               // root2 has larger tree
+      set(root2, size1 + size2);
+      set(root1, root2);
+    } else {                                  // root1 has equal or larger tree
+      set(root1, size1 + size2);
+      set(root2, root1);
+    }
+    numSets--;
+    return true;
+  }
+
+  /**
+   *  sizeOf() returns the number of elements in the set containing x.  It
+   *  calls find() to reach the root, which holds the size, so it costs as
+   *  much as find() does, not constant time.
+   *
+   *  @param x an element.
+   *  @return the size of x's set.
+   **/
+  public long sizeOf(long x) {
+    return -get(find(x));
+  }
+}
@@ -0,0 +1,143 @@
+/* RollbackDisjointSets.java */
+
+package set;
+
+/**
+ *  A disjoint sets ADT whose unions can be undone.  Performs union-by-size
+ *  but no path compression, so that every union changes exactly two entries
+ *  and can be reversed; union-by-size alone keeps find() at O(log n).
+ *
+ *  Each union is pushed on a stack.  checkpoint() marks the current top of
+ *  the stack, and rollback() undoes every union made since the most recent
+ *  checkpoint not yet rolled back, then removes that checkpoint.
+ *  Checkpoints nest, which is how offline dynamic connectivity walks a
+ *  segment tree over time.
+ *
+ *  Elements are represented by ints, numbered from zero.
+ **/
+
+public class RollbackDisjointSets {
+
+  private int[] array;
+  private int[] undoChild;          // the root linked by each union on the stack
+  private int[] undoSize;           // that root's entry before the union
+  private int undoTop;
+  private int[] checkpoints;
+  private int numCheckpoints;
+  private int numSets;
+
+  /**
+   *  Construct a disjoint sets object.
+   *
+   *  @param numElements the initial number of elements--also the initial
+   *  number of disjoint sets, since every element is initially in its own set.
+   **/
+  public RollbackDisjointSets(int numElements) {
+    array = new int[numElements];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = -1;
+    }
+    undoChild = new int[16];
+    undoSize = new int[16];
+    checkpoints = new int[16];
+    numSets = numElements;
+  }
+
+  /**
+   *  find() finds the (int) name of the set containing a given element.
+   *  The path is not compressed.
+   *
+   *  @param x the element sought.
+   *  @return the set containing x.
+   **/
+  public int find(int x) {
+    while (array[x] >= 0) {
+      x = array[x];
+    }
+    return x;
+  }
+
+  /**
+   *  union() unites the sets containing x and y into a single set.  A
+   *  union-by-size heuristic is used to choose the new root.
+   *
+   *  @param x an element of the first set.
+   *  @param y an element of the other set.
+   *  @return true if x and y were in different sets, so that this call
+   *  united them; false if they were already in the same set, in which case
+   *  nothing is pushed on the stack.
+   **/
+  public boolean union(int x, int y) {
+    int root1 = find(x);
+    int root2 = find(y);
+    if (root1 == root2) {
+      return false;
+    }
+    if (array[root2] < array[root1]) {                 // root2 has larger tree
+      int temp = root1;
+      root1 = root2;
+      root2 = temp;
+    }
+    // root1 now has the equal or larger tree; link root2 under it;
+    if (undoTop == undoChild.length) {
+      undoChild = grow(undoChild);
+      undoSize = grow(undoSize);
+    }
+    undoChild[undoTop] = root2;
+    undoSize[undoTop] = array[root2];
+    undoTop++;
+    array[root1] += array[root2];
+    array[root2] = root1;
+    numSets--;
+    return true;
+  }
+
+  /**
+   *  checkpoint() marks the current state, so that a later rollback() can
+   *  return to it.
+   **/
+  public void checkpoint() {
+    if (numCheckpoints == checkpoints.length) {
+      checkpoints = grow(checkpoints);
+    }
+    checkpoints[numCheckpoints] = undoTop;
+    numCheckpoints++;
+  }
+
+  /**
+   *  rollback() undoes every union made since the most recent checkpoint
+   *  that has not been rolled back yet, and removes that checkpoint.  If
+   *  there is no checkpoint, every union ever made is undone.
+   *
+   *  Running time:  O(1) per union undone.
+   **/
+  public void rollback() {
+    int mark = 0;
+    if (numCheckpoints > 0) {
+      numCheckpoints--;
+      mark = checkpoints[numCheckpoints];
+    }
+    while (undoTop > mark) {
+      undoTop--;
+      int child = undoChild[undoTop];
+      int root = array[child];
+      array[root] -= undoSize[undoTop];
+      array[child] = undoSize[undoTop];
+      numSets++;
+    }
+  }
+
+  /**
+   *  componentCount() returns the number of disjoint sets.
+   **/
+  public int componentCount() {
+    return numSets;
+  }
+
+  // grow returns a copy of a with twice the length;
+  private static int[] grow(int[] a) {
+    int[] temp = new int[2 * a.length];
+    System.arraycopy(a, 0, temp, 0, a.length);
+    return temp;
+  }
+}